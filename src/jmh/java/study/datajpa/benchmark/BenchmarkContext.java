@@ -0,0 +1,88 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.service.BulkIngestService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 (웹 서버, SQL 로그, 2차 캐시 없이 H2 에 데이터를 채워서 시작)
+ * 2차 캐시를 끄는 이유: 캐시가 켜져 있으면 반복 조회가 DB 까지 가지 않아서 쿼리 방식 간 비교가 되지 않는다.
+ * 같은 이유로 username 인덱스(쿼리 대신 id 조회), 리포지토리 메트릭 인터셉터, 시작 시 워밍업도 끈다.
+ * EXPLAIN 검사는 데이터를 채우기 전(빈 테이블) 기준이라 의미가 없으므로 끈다.
+ * (켜고 비교하려면 options 로 다시 켠다. 예) datajpa.username-index.enabled=true)
+ */
+public class BenchmarkContext {
+    public static final int TEAM_COUNT = 10;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @param rows    회원 수 (팀은 TEAM_COUNT 개, 회원 username 은 member0 ~ member{rows-1}, age 는 0 ~ 99)
+     * @param options 추가 스프링 프로퍼티 (key=value)
+     */
+    public static BenchmarkContext start(int rows, String... options) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "decorator.datasource.p6spy.enable-logging=false",
+                "datajpa.username-index.enabled=false",
+                "datajpa.metrics.enabled=false",
+                "datajpa.warmup.enabled=false",
+                "datajpa.explain-check.enabled=false",
+                "logging.level.root=warn",
+                "logging.level.org.hibernate.SQL=warn"
+        ));
+        properties.addAll(List.of(options));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(new String[0]))
+                .run();
+        BenchmarkContext benchmarkContext = new BenchmarkContext(context);
+        benchmarkContext.seed(rows);
+        return benchmarkContext;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(getBean(TransactionTemplate.class).getTransactionManager());
+        template.setReadOnly(true);
+        return template;
+    }
+
+    public void close() {
+        context.close();
+    }
+
+    private void seed(int rows) {
+        TeamRepository teamRepository = getBean(TeamRepository.class);
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teams.add(teamRepository.save(new Team("team" + i)));
+        }
+
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("member" + i, i % 100, teams.get(i % TEAM_COUNT)));
+        }
+        getBean(BulkIngestService.class).insertMembers(members);
+    }
+}
@@ -0,0 +1,102 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import study.datajpa.analytics.MemberColumnStore;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 메모리에 올려 둔 엔티티 목록(팀 프록시 포함, detached) 집계 vs 컬럼 스냅샷(MemberColumnStore) 집계
+ * 시작할 때 각각 GC 후 힙 사용량 차이를 출력한다. (컬럼 스냅샷은 엔티티 목록의 1/5 보다 훨씬 작아야 한다.)
+ * ./gradlew jmh -Pjmh.includes=ColumnStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ColumnStoreBenchmark {
+
+    private static final int ROWS = 500_000;
+
+    BenchmarkContext context;
+    MemberColumnStore store;
+    List<Member> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(ROWS);
+        store = context.getBean(MemberColumnStore.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+
+        long base = usedHeap();
+        store.reload();
+        long columnBytes = usedHeap() - base;
+
+        base = usedHeap();
+        entities = context.readOnlyTransaction().execute(status -> memberRepository.findAll());
+        long entityBytes = usedHeap() - base;
+
+        System.out.printf("[benchmark] heap: entities %,d bytes, column store %,d bytes (estimated %,d), ratio %.3f%n",
+                entityBytes, columnBytes, store.estimatedBytes(), (double) columnBytes / entityBytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> entityAgeHistogram() {
+        return entities.parallelStream()
+                .collect(Collectors.groupingBy(member -> member.getAge() / 10 * 10, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> columnAgeHistogram() {
+        return store.ageHistogram(10);
+    }
+
+    @Benchmark
+    public Map<Long, Long> entityCountByTeam() {
+        return entities.parallelStream()
+                .collect(Collectors.groupingBy(member -> member.getTeam().getId(), Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Long, Long> columnCountByTeam() {
+        return store.countByTeam();
+    }
+
+    @Benchmark
+    public long entityUsernamePrefix() {
+        return entities.parallelStream()
+                .map(Member::getUsername)
+                .filter(username -> username.startsWith("member12"))
+                .count();
+    }
+
+    @Benchmark
+    public long columnUsernamePrefix() {
+        return store.countByUsernamePrefix("member12");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
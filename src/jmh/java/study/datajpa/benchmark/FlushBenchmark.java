@@ -0,0 +1,80 @@
+package study.datajpa.benchmark;
+
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import study.datajpa.domain.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속성 컨텍스트에 회원(팀 포함)이 rows 건 있을 때 flush 시간
+ * <ul>
+ *     <li>flushUnchanged: 변경 없음, 순수 변경 감지 비용</li>
+ *     <li>flushOneChanged: 회원 한 명 변경 (update 1건 + 변경 감지)</li>
+ * </ul>
+ * 스냅샷 비교(향상 없음)는 엔티티 수 x 필드 수만큼 비교하고, dirty tracking 은 엔티티마다 변경 여부만 확인한다.
+ * 트랜잭션 하나를 측정 내내 열어 두고 끝나면 롤백한다.
+ * ./gradlew jmh -Pjmh.includes=FlushBenchmark
+ * ./gradlew jmh -Pjmh.includes=FlushBenchmark -PsnapshotDirtyChecking (비교: 스냅샷 비교)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FlushBenchmark {
+
+    @Param({"10000", "100000"})
+    int rows;
+
+    BenchmarkContext context;
+    EntityManager em;
+    List<Member> members;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        em.getTransaction().begin();
+        members = em.createQuery("select m from Member m join fetch m.team", Member.class).getResultList();
+        //향상되지 않은 클래스(IDE 빌드 등)로 측정하면 비교가 의미 없으므로 빌드 설정과 다르면 멈춘다.
+        boolean dirtyTracking = members.get(0) instanceof SelfDirtinessTracker;
+        boolean expected = Boolean.parseBoolean(System.getProperty("benchmark.dirty-tracking", "true"));
+        if (dirtyTracking != expected) {
+            throw new IllegalStateException("Member 바이트코드 향상(dirty tracking)이 빌드 설정과 다릅니다. expected="
+                    + expected + ", actual=" + dirtyTracking + " (./gradlew jmh 로 실행)");
+        }
+        System.out.printf("[benchmark] flush: %,d members managed, dirty tracking %s%n",
+                members.size(), dirtyTracking);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.getTransaction().rollback();
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void flushUnchanged() {
+        em.flush();
+    }
+
+    @Benchmark
+    public void flushOneChanged() {
+        Member member = members.get(next++ % members.size());
+        member.setAge(member.getAge() + 1);
+        em.flush();
+    }
+}
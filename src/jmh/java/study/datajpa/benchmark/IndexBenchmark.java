@@ -0,0 +1,81 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인덱스 유무에 따른 조회 처리량 (회원 100만 건)
+ * indexed=false 는 시작 후 username, age 인덱스를 지우고 측정한다.
+ * team_id 인덱스는 외래 키가 사용하므로 지울 수 없다. (H2 는 외래 키에 인덱스가 반드시 필요)
+ * ./gradlew jmh -Pjmh.includes=IndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IndexBenchmark {
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean indexed;
+
+    BenchmarkContext context;
+    TransactionTemplate tx;
+    MemberRepository memberRepository;
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        if (!indexed) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.execute("drop index idx_member_username_age");
+            jdbcTemplate.execute("drop index idx_member_age");
+        }
+        context.getBean(JdbcTemplate.class).execute("analyze");
+        tx = context.readOnlyTransaction();
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findByUsernameAndAgeGreaterThan() {
+        return tx.execute(status -> memberRepository.findByUsernameAndAgeGreaterThan("member500000", 5));
+    }
+
+    @Benchmark
+    public Object findUser() {
+        return tx.execute(status -> memberRepository.findUser("member500000", 0));
+    }
+
+    @Benchmark
+    public Object findByAgePage() {
+        return tx.execute(status -> memberRepository.findByAge(10, PageRequest.of(0, 10)));
+    }
+
+    @Benchmark
+    public Object findByPageOrderByUsername() {
+        return tx.execute(status -> memberJpaRepository.findByPage(10, 0, 10));
+    }
+}
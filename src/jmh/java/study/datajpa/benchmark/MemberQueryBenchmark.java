@@ -0,0 +1,153 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjections;
+import study.datajpa.repository.UsernameOnly;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberRepository 조회 방식별 처리량(ops/s)과 op 당 할당량(gc.alloc.rate.norm)
+ * ./gradlew jmh -Pjmh.includes=MemberQueryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberQueryBenchmark {
+
+    @Param({"1000", "10000"})
+    int rows;
+
+    BenchmarkContext context;
+    TransactionTemplate tx;
+    MemberRepository memberRepository;
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        tx = context.readOnlyTransaction();
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //===단건/소량 조회===//
+
+    @Benchmark
+    public Object derivedQuery() {
+        return tx.execute(status -> memberRepository.findByUsernameAndAgeGreaterThan("member10", 5));
+    }
+
+    @Benchmark
+    public Object jpqlQuery() {
+        return tx.execute(status -> memberRepository.findUser("member10", 10));
+    }
+
+    @Benchmark
+    public Object namedQuery() {
+        return tx.execute(status -> memberRepository.findByUsername("member10"));
+    }
+
+    @Benchmark
+    public Object namedQueryJpaRepository() {
+        return tx.execute(status -> memberJpaRepository.findByUsername("member10"));
+    }
+
+    @Benchmark
+    public Object interfaceProjection() {
+        return tx.execute(status -> memberRepository.findProjectionsByUsername("member10", UsernameOnly.class));
+    }
+
+    @Benchmark
+    public Object nestedProjection() {
+        return tx.execute(status -> memberRepository.findProjectionsByUsername("member10", NestedClosedProjections.class));
+    }
+
+    @Benchmark
+    public Object nestedProjectionCompiled() {
+        return tx.execute(status -> memberRepository.findProjectedByUsername("member10", NestedClosedProjections.class));
+    }
+
+    //===페이지 조회===//
+
+    @Benchmark
+    public Object nativeProjectionPage() {
+        return tx.execute(status -> memberRepository.findByNativeProjection(PageRequest.of(0, 10)));
+    }
+
+    @Benchmark
+    public Object derivedPage() {
+        return tx.execute(status -> memberRepository.findByAge(10, PageRequest.of(0, 10)));
+    }
+
+    /**
+     * /members 이전 방식: 엔티티 페이지 -> DTO 변환 (hydration, 스냅샷, 영속성 컨텍스트 비용)
+     */
+    @Benchmark
+    public Object entityPageToDto() {
+        return tx.execute(status -> memberRepository.findPageAll(PageRequest.of(5, 20, Sort.by("username")))
+                .map(m -> new MemberDto(m.getId(), m.getUsername(), null)));
+    }
+
+    /**
+     * /members: DTO 프로젝션 페이지
+     */
+    @Benchmark
+    public Object dtoProjectionPage() {
+        return tx.execute(status -> memberRepository.findMemberDtoPage(PageRequest.of(5, 20, Sort.by("username"))));
+    }
+
+    //===전체 조회===//
+
+    @Benchmark
+    public Object dtoProjection() {
+        return tx.execute(status -> memberRepository.findMemberDto());
+    }
+
+    @Benchmark
+    public Object fetchJoin() {
+        return tx.execute(status -> memberRepository.findMemberFetchJoin());
+    }
+
+    @Benchmark
+    public Object entityGraph() {
+        return tx.execute(status -> memberRepository.findMemberEntityGraph());
+    }
+
+    @Benchmark
+    public Object findAllJpaRepository() {
+        return tx.execute(status -> memberJpaRepository.findAll());
+    }
+
+    @Benchmark
+    public Object findAllDataJpa() {
+        //스프링 데이터 JPA findAll (@EntityGraph 로 팀을 함께 조회)
+        return tx.execute(status -> memberRepository.findAll());
+    }
+
+    @Benchmark
+    public Object findAllCustomFragment() {
+        //사용자 정의 리포지토리 구현 (MemberRepositoryImpl.findMemberCustom)
+        return tx.execute(status -> memberRepository.findMemberCustom());
+    }
+}
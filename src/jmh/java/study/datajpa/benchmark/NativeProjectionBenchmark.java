@@ -0,0 +1,88 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 회원 + 팀 이름 네이티브 조회: 인터페이스 프록시(findByNativeProjection) vs 컬럼 위치 RowMapper(DTO)
+ * 결과는 행 단위 (ops/s = rows/s, gc.alloc.rate.norm = 행당 할당 바이트)
+ * ./gradlew jmh -Pjmh.includes=NativeProjectionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NativeProjectionBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    BenchmarkContext context;
+    TransactionTemplate tx;
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(ROWS);
+        tx = context.readOnlyTransaction();
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void proxyPage(Blackhole blackhole) {
+        tx.executeWithoutResult(status -> {
+            for (MemberProjection projection : memberRepository.findByNativeProjection(PageRequest.of(0, ROWS))) {
+                blackhole.consume(projection.getId());
+                blackhole.consume(projection.getUsername());
+                blackhole.consume(projection.getTeamName());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void dtoPage(Blackhole blackhole) {
+        tx.executeWithoutResult(status -> {
+            for (MemberDto dto : memberRepository.findNativeMemberDtoPage(PageRequest.of(0, ROWS))) {
+                blackhole.consume(dto.getId());
+                blackhole.consume(dto.getUsername());
+                blackhole.consume(dto.getTeamName());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void dtoStream(Blackhole blackhole) {
+        tx.executeWithoutResult(status -> {
+            try (Stream<MemberDto> stream = memberRepository.streamNativeMemberDto(500)) {
+                stream.forEach(dto -> {
+                    blackhole.consume(dto.getId());
+                    blackhole.consume(dto.getUsername());
+                    blackhole.consume(dto.getTeamName());
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+import study.datajpa.repository.support.QuerySpec;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동적 검색 처리량: JpaSpecificationExecutor(Criteria) vs findAllBySpec(캐시된 JPQL)
+ * 호출마다 값을 바꿔서 같은 조합, 다른 값으로 검색한다.
+ * ./gradlew jmh -Pjmh.includes=SpecificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpecificationBenchmark {
+
+    @Param({"10000"})
+    int rows;
+
+    /**
+     * username: 회원 이름, usernameTeam: 이름 + 팀, teamAge: 팀 + 나이 범위(페이지)
+     */
+    @Param({"username", "usernameTeam", "teamAge"})
+    String combination;
+
+    BenchmarkContext context;
+    TransactionTemplate tx;
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        tx = context.readOnlyTransaction();
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object criteria() {
+        QuerySpec<Member> spec = spec();
+        if ("teamAge".equals(combination)) {
+            return tx.execute(status -> memberRepository.findAll(spec, PageRequest.of(0, 10)));
+        }
+        return tx.execute(status -> memberRepository.findAll(spec));
+    }
+
+    @Benchmark
+    public Object compiled() {
+        QuerySpec<Member> spec = spec();
+        if ("teamAge".equals(combination)) {
+            return tx.execute(status -> memberRepository.findAllBySpec(spec, PageRequest.of(0, 10)));
+        }
+        return tx.execute(status -> memberRepository.findAllBySpec(spec));
+    }
+
+    private QuerySpec<Member> spec() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(rows);
+        String username = "member" + i;
+        String teamName = "team" + (i % BenchmarkContext.TEAM_COUNT);
+        switch (combination) {
+            case "username":
+                return MemberSpec.username(username);
+            case "usernameTeam":
+                return MemberSpec.username(username).and(MemberSpec.teamName(teamName));
+            default:
+                int age = random.nextInt(90);
+                return MemberSpec.teamName(teamName).and(MemberSpec.ageGoe(age)).and(MemberSpec.ageLoe(age + 10));
+        }
+    }
+}
@@ -1,18 +1,37 @@
 package study.datajpa;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableAsync;
+import study.datajpa.audit.CachingAuditorAware;
+import study.datajpa.audit.FlushScopedDateTimeProvider;
+import study.datajpa.repository.support.DataJpaRepositoryFactoryBean;
+import study.datajpa.repository.support.QueryWarmup;
 
+import java.time.Clock;
 import java.util.Optional;
 import java.util.UUID;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+//네임드 쿼리 파일은 프로필별로 다르다. (fast-start 는 메서드 이름 쿼리를 미리 풀어 둔 파일, 기본값은 스프링 데이터 JPA 기본 위치)
+@EnableJpaRepositories(repositoryFactoryBeanClass = DataJpaRepositoryFactoryBean.class,
+        namedQueriesLocation = QueryWarmup.NAMED_QUERIES_LOCATION)
+@EnableAsync //AsyncMemberService
 @SpringBootApplication
 public class DataJpaApplication {
 
+    /**
+     * true: 감사자는 요청/트랜잭션 단위로 캐시, 감사 시간은 flush 단위로 공유
+     */
+    @Value("${datajpa.auditing.high-throughput:true}")
+    private boolean highThroughputAuditing;
+
     public static void main(String[] args) {
         SpringApplication.run(DataJpaApplication.class, args);
     }
@@ -20,6 +39,11 @@ public class DataJpaApplication {
     @Bean
     public AuditorAware<String> auditorProvider() {
         //보통 httpSession 에서 유저의 ID를 꺼낸다.
-        return () -> Optional.of(UUID.randomUUID().toString());
+        return new CachingAuditorAware(() -> Optional.of(UUID.randomUUID().toString()), highThroughputAuditing);
+    }
+
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider() {
+        return new FlushScopedDateTimeProvider(Clock.systemDefaultZone(), highThroughputAuditing);
     }
 }
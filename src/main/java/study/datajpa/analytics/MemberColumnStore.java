@@ -0,0 +1,528 @@
+package study.datajpa.analytics;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.support.BulkChangeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Member 분석용 컬럼 스냅샷 (읽기 모델)
+ * <p>엔티티 목록 대신 컬럼별 기본형 배열로 보관한다. 행마다 객체가 없어서 힙 사용량이 작고, 집계는 배열을 순서대로 훑는다.</p>
+ * <ul>
+ *     <li>ids: long[], id 오름차순 (id 로 행 찾기는 이진 탐색)</li>
+ *     <li>ages: int[]</li>
+ *     <li>teamCodes: int[], 팀 id 사전 코드 (0 은 팀 없음)</li>
+ *     <li>usernameCodes: int[], {@link StringDictionary} 코드 (-1 삭제된 행, -2 username 없음)</li>
+ * </ul>
+ * <p>처음 조회할 때 전체를 읽고, 이후에는 {@link MemberColumnStoreListener} 가 모은 변경을 커밋 후에 반영한다.
+ * 엔티티 리스너를 거치지 않는 변경({@link BulkChangeEvent})이 있으면 다음 조회 때 다시 전체를 읽는다.</p>
+ * <p>집계는 {@value #CHUNK_SIZE} 행 단위로 나눠서 병렬로 실행하고, 행마다 객체를 만들지 않는다. (청크마다 결과 배열만 만든다.)</p>
+ * <p>읽기는 락 없이 마지막으로 발행된 {@link Columns} 를 사용한다. 발행된 행은 바뀌지 않으므로 집계 중에 반영된 변경은 보이지 않는다.
+ * (이미 있는 행을 수정/삭제하는 커밋은 반영할 때마다 행 배열을 한 번 복사한다. 끝에 추가만 하면 복사하지 않는다.)</p>
+ */
+@Slf4j
+@Component
+public class MemberColumnStore {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int NO_TEAM = 0;
+    private static final int DELETED = -1;
+    private static final int NO_USERNAME = -2;
+    private static final String LOAD_SQL = "select member_id, age, team_id, username from member order by member_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    /**
+     * 전체 다시 읽기는 한 번에 하나만
+     */
+    private final Object reloadLock = new Object();
+
+    private volatile Columns columns; //null 이면 아직 읽지 않음
+    private volatile boolean stale;
+
+    //아래는 this 락 안에서만 접근
+    private Table table;
+    private List<MemberChange> pending; //다시 읽는 동안 들어온 변경, 다 읽은 후에 다시 반영
+
+    public MemberColumnStore(JdbcTemplate jdbcTemplate,
+                             @Value("${datajpa.analytics.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    //===집계===//
+
+    public long count() {
+        return columns().live;
+    }
+
+    /**
+     * @param bucketWidth 구간 크기, 키는 구간 시작 나이 (floorDiv(age, bucketWidth) * bucketWidth)
+     */
+    public SortedMap<Integer, Long> ageHistogram(int bucketWidth) {
+        Assert.isTrue(bucketWidth > 0, "bucketWidth 는 1 이상이어야 합니다.");
+        Columns c = columns();
+        SortedMap<Integer, Long> result = new TreeMap<>();
+        if (c.live == 0) {
+            return result;
+        }
+
+        //1. 나이 범위
+        int[] range = chunks(c).mapToObj(chunk -> ageRange(c, chunk))
+                .reduce((a, b) -> new int[]{Math.min(a[0], b[0]), Math.max(a[1], b[1])})
+                .orElseThrow();
+        int minBucket = Math.floorDiv(range[0], bucketWidth);
+        int buckets = Math.floorDiv(range[1], bucketWidth) - minBucket + 1;
+
+        //2. 구간별 건수
+        long[] counts = chunks(c).mapToObj(chunk -> {
+                    long[] partial = new long[buckets];
+                    for (int i = from(chunk), to = to(c, chunk); i < to; i++) {
+                        if (c.usernameCodes[i] != DELETED) {
+                            partial[Math.floorDiv(c.ages[i], bucketWidth) - minBucket]++;
+                        }
+                    }
+                    return partial;
+                })
+                .reduce(MemberColumnStore::add)
+                .orElseThrow();
+        for (int i = 0; i < buckets; i++) {
+            if (counts[i] > 0) {
+                result.put((minBucket + i) * bucketWidth, counts[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 팀 id -> 회원 수 (팀이 없는 회원은 {@link #countWithoutTeam()})
+     */
+    public Map<Long, Long> countByTeam() {
+        Columns c = columns();
+        long[] counts = teamCounts(c);
+        Map<Long, Long> result = new LinkedHashMap<>();
+        for (int code = NO_TEAM + 1; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(c.teamIds[code], counts[code]);
+            }
+        }
+        return result;
+    }
+
+    public long countWithoutTeam() {
+        return teamCounts(columns())[NO_TEAM];
+    }
+
+    /**
+     * username 이 prefix 로 시작하는 회원 수
+     * 사전의 값마다 한 번씩만 비교하고, 행은 코드로만 확인한다.
+     */
+    public long countByUsernamePrefix(String prefix) {
+        Columns c = columns();
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        StringDictionary.View usernames = c.usernames;
+        boolean[] matches = new boolean[usernames.size()];
+        IntStream.range(0, usernames.size()).parallel()
+                .forEach(code -> matches[code] = usernames.startsWith(code, prefixBytes));
+
+        return chunks(c).mapToLong(chunk -> {
+            long count = 0;
+            for (int i = from(chunk), to = to(c, chunk); i < to; i++) {
+                int code = c.usernameCodes[i];
+                if (code >= 0 && matches[code]) {
+                    count++;
+                }
+            }
+            return count;
+        }).sum();
+    }
+
+    /**
+     * 컬럼 배열과 사전이 차지하는 대략적인 바이트 수 (배열 헤더 제외)
+     */
+    public long estimatedBytes() {
+        return columns().estimatedBytes;
+    }
+
+    //===변경 반영===//
+
+    /**
+     * 트랜잭션 안이면 커밋 후에 반영하고(롤백되면 버림), 밖이면 바로 반영한다.
+     * 아직 한 번도 읽지 않았다면 반영할 때 버린다. (처음 읽는 도중에 커밋된 변경은 다시 반영)
+     */
+    void stage(MemberChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(change));
+            return;
+        }
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        changes.changes.add(change);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChange(BulkChangeEvent event) {
+        if (Member.class.equals(event.getDomainType())) {
+            stale = true;
+        }
+    }
+
+    /**
+     * DB 에서 전체를 다시 읽는다. 읽는 동안 커밋된 변경은 다 읽은 후에 다시 반영한다.
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+                stale = false;
+            }
+            Table loaded = null;
+            try {
+                long start = System.nanoTime();
+                loaded = load();
+                log.info("member column store loaded: {} rows, {} bytes, {} ms", loaded.live,
+                        loaded.estimatedBytes(), (System.nanoTime() - start) / 1_000_000);
+            } finally {
+                synchronized (this) {
+                    if (loaded != null) {
+                        for (MemberChange change : pending) {
+                            loaded.apply(change);
+                        }
+                        table = loaded;
+                        columns = loaded.snapshot();
+                    } else {
+                        stale = true;
+                    }
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    private synchronized void apply(List<MemberChange> changes) {
+        if (pending != null) {
+            pending.addAll(changes);
+        }
+        if (table != null) {
+            changes.forEach(table::apply);
+            columns = table.snapshot();
+        }
+    }
+
+    /**
+     * 기다리는 동안 다른 스레드가 이미 다시 읽었으면 또 읽지 않는다.
+     */
+    private Columns columns() {
+        Columns c = columns;
+        if (c == null || stale) {
+            synchronized (reloadLock) {
+                if (columns == null || stale) {
+                    reload();
+                }
+            }
+            c = columns;
+        }
+        return c;
+    }
+
+    private Table load() {
+        Table loaded = new Table(CHUNK_SIZE);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOAD_SQL);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            long teamId = rs.getLong(3);
+            Long team = rs.wasNull() ? null : teamId;
+            loaded.apply(new MemberChange(rs.getLong(1), rs.getInt(2), team, rs.getString(4), false));
+        });
+        return loaded;
+    }
+
+    //===병렬 스캔===//
+
+    private static IntStream chunks(Columns c) {
+        int chunks = (c.size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream stream = IntStream.range(0, chunks);
+        return chunks > 1 ? stream.parallel() : stream;
+    }
+
+    private static int from(int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    private static int to(Columns c, int chunk) {
+        return Math.min(c.size, (chunk + 1) * CHUNK_SIZE);
+    }
+
+    private static int[] ageRange(Columns c, int chunk) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = from(chunk), to = to(c, chunk); i < to; i++) {
+            if (c.usernameCodes[i] != DELETED) {
+                min = Math.min(min, c.ages[i]);
+                max = Math.max(max, c.ages[i]);
+            }
+        }
+        return new int[]{min, max};
+    }
+
+    private static long[] teamCounts(Columns c) {
+        long[] empty = new long[c.teamIds.length];
+        return chunks(c).mapToObj(chunk -> {
+                    long[] partial = new long[c.teamIds.length];
+                    for (int i = from(chunk), to = to(c, chunk); i < to; i++) {
+                        if (c.usernameCodes[i] != DELETED) {
+                            partial[c.teamCodes[i]]++;
+                        }
+                    }
+                    return partial;
+                })
+                .reduce(MemberColumnStore::add)
+                .orElse(empty);
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    //===내부 구조===//
+
+    /**
+     * 엔티티 콜백에서 읽은 Member 한 건의 상태
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    static class MemberChange {
+        private final long id;
+        private final int age;
+        private final Long teamId;
+        private final String username;
+        private final boolean deleted;
+
+        static MemberChange of(Member member) {
+            Long teamId = member.getTeam() == null ? null : member.getTeam().getId(); //프록시여도 초기화하지 않는다.
+            return new MemberChange(member.getId(), member.getAge(), teamId, member.getUsername(), false);
+        }
+
+        static MemberChange deleted(Member member) {
+            return new MemberChange(member.getId(), 0, null, null, true);
+        }
+    }
+
+    /**
+     * 트랜잭션 하나에서 모은 변경, 커밋 후에 반영
+     */
+    private class PendingChanges implements TransactionSynchronization {
+        private final List<MemberChange> changes = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            apply(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberColumnStore.this);
+        }
+    }
+
+    /**
+     * 읽기용 스냅샷, 발행 후에는 size 밖의 배열 칸만 바뀐다. (size 안의 행은 {@link Table} 이 복사한 배열에서 바꾼다.)
+     */
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class Columns {
+        private final long[] ids;
+        private final int[] ages;
+        private final int[] teamCodes;
+        private final int[] usernameCodes;
+        private final int size;
+        private final int live;
+        private final long[] teamIds;
+        private final StringDictionary.View usernames;
+        private final long estimatedBytes;
+    }
+
+    /**
+     * 쓰기용 컬럼 (MemberColumnStore 락 안에서만 변경)
+     */
+    private static final class Table {
+        private long[] ids;
+        private int[] ages;
+        private int[] teamCodes;
+        private int[] usernameCodes;
+        private int size;
+        private int live;
+        private long[] teamIds = new long[16];
+        private int teamCount = NO_TEAM + 1;
+        private boolean shared; //행 배열이 발행된 스냅샷과 같으면 true
+        private final Map<Long, Integer> teamCodeMap = new HashMap<>(); //팀 수만큼만
+        private final StringDictionary usernames;
+
+        Table(int capacity) {
+            ids = new long[capacity];
+            ages = new int[capacity];
+            teamCodes = new int[capacity];
+            usernameCodes = new int[capacity];
+            usernames = new StringDictionary(capacity);
+        }
+
+        void apply(MemberChange change) {
+            int row = Arrays.binarySearch(ids, 0, size, change.getId());
+            if (change.isDeleted()) {
+                if (row >= 0 && usernameCodes[row] != DELETED) {
+                    unshare();
+                    usernameCodes[row] = DELETED;
+                    live--;
+                    compactIfSparse();
+                }
+                return;
+            }
+
+            int teamCode = teamCode(change.getTeamId());
+            int usernameCode = change.getUsername() == null ? NO_USERNAME : usernames.encode(change.getUsername());
+            if (row < 0) {
+                insert(-row - 1, change.getId(), change.getAge(), teamCode, usernameCode);
+                return;
+            }
+            if (usernameCodes[row] == DELETED) {
+                live++;
+            }
+            unshare();
+            ages[row] = change.getAge();
+            teamCodes[row] = teamCode;
+            usernameCodes[row] = usernameCode;
+        }
+
+        /**
+         * 끝에 추가할 때는 발행된 size 밖의 칸에 쓰므로 같은 배열을 쓴다.
+         * 중간에 끼워 넣을 때는(커밋 순서가 id 순서와 다른 경우) 읽는 중인 배열을 밀지 않도록 새 배열로 복사한다.
+         */
+        private void insert(int position, long id, int age, int teamCode, int usernameCode) {
+            if (position < size || size == ids.length) {
+                int capacity = size == ids.length ? ids.length * 2 : ids.length;
+                ids = copyWithGap(ids, position, capacity);
+                ages = copyWithGap(ages, position, capacity);
+                teamCodes = copyWithGap(teamCodes, position, capacity);
+                usernameCodes = copyWithGap(usernameCodes, position, capacity);
+                shared = false;
+            }
+            ids[position] = id;
+            ages[position] = age;
+            teamCodes[position] = teamCode;
+            usernameCodes[position] = usernameCode;
+            size++;
+            live++;
+        }
+
+        private long[] copyWithGap(long[] source, int position, int capacity) {
+            long[] target = new long[capacity];
+            System.arraycopy(source, 0, target, 0, position);
+            System.arraycopy(source, position, target, position + 1, size - position);
+            return target;
+        }
+
+        private int[] copyWithGap(int[] source, int position, int capacity) {
+            int[] target = new int[capacity];
+            System.arraycopy(source, 0, target, 0, position);
+            System.arraycopy(source, position, target, position + 1, size - position);
+            return target;
+        }
+
+        /**
+         * 삭제된 행이 1/4 을 넘으면 새 배열로 모은다. (사전은 다시 읽을 때 정리)
+         */
+        private void compactIfSparse() {
+            int deleted = size - live;
+            if (deleted < 1024 || deleted * 4 < size) {
+                return;
+            }
+            long[] newIds = new long[ids.length];
+            int[] newAges = new int[ids.length];
+            int[] newTeamCodes = new int[ids.length];
+            int[] newUsernameCodes = new int[ids.length];
+            int row = 0;
+            for (int i = 0; i < size; i++) {
+                if (usernameCodes[i] != DELETED) {
+                    newIds[row] = ids[i];
+                    newAges[row] = ages[i];
+                    newTeamCodes[row] = teamCodes[i];
+                    newUsernameCodes[row] = usernameCodes[i];
+                    row++;
+                }
+            }
+            ids = newIds;
+            ages = newAges;
+            teamCodes = newTeamCodes;
+            usernameCodes = newUsernameCodes;
+            size = row;
+            shared = false;
+        }
+
+        /**
+         * 발행된 행을 바꾸기 전에 수정되는 배열을 복사한다. (다음 발행 전까지는 한 번만)
+         * ids 는 중간에 끼워 넣을 때만 바뀌고 그때는 이미 새 배열이다.
+         */
+        private void unshare() {
+            if (shared) {
+                ages = ages.clone();
+                teamCodes = teamCodes.clone();
+                usernameCodes = usernameCodes.clone();
+                shared = false;
+            }
+        }
+
+        private int teamCode(Long teamId) {
+            if (teamId == null) {
+                return NO_TEAM;
+            }
+            return teamCodeMap.computeIfAbsent(teamId, id -> {
+                if (teamCount == teamIds.length) {
+                    teamIds = Arrays.copyOf(teamIds, teamIds.length * 2);
+                }
+                teamIds[teamCount] = id;
+                return teamCount++;
+            });
+        }
+
+        long estimatedBytes() {
+            return (long) ids.length * (Long.BYTES + 3 * Integer.BYTES) + usernames.estimatedBytes();
+        }
+
+        Columns snapshot() {
+            shared = true;
+            return new Columns(ids, ages, teamCodes, usernameCodes, size, live,
+                    Arrays.copyOf(teamIds, teamCount), usernames.view(), estimatedBytes());
+        }
+    }
+}
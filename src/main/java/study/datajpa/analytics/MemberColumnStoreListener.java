@@ -0,0 +1,29 @@
+package study.datajpa.analytics;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.domain.Member;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Member 엔티티 리스너, 변경된 상태를 {@link MemberColumnStore} 에 넘긴다. (반영은 커밋 후)
+ * 콜백 시점의 값을 복사해 두므로 커밋 전에 엔티티가 다시 바뀌어도 마지막 flush 의 상태가 반영된다.
+ */
+@RequiredArgsConstructor
+public class MemberColumnStoreListener {
+
+    private final MemberColumnStore store;
+
+    @PostPersist
+    @PostUpdate
+    public void changed(Member member) {
+        store.stage(MemberColumnStore.MemberChange.of(member));
+    }
+
+    @PostRemove
+    public void removed(Member member) {
+        store.stage(MemberColumnStore.MemberChange.deleted(member));
+    }
+}
@@ -0,0 +1,133 @@
+package study.datajpa.analytics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 문자열 사전 (문자열 -> 0 부터 시작하는 int 코드)
+ * <p>String 객체를 보관하지 않고 UTF-8 바이트를 배열 하나(data)에 이어 붙인다. 코드 c 의 값은 data[offsets[c], offsets[c + 1])</p>
+ * <p>찾기는 개방 주소법 해시 테이블(table 에 코드 + 1 저장, 0 은 빈 칸) 이라 값마다 객체가 생기지 않는다.</p>
+ * <p>값은 추가만 된다. 이미 발급한 코드의 바이트/오프셋은 바뀌지 않으므로 {@link #view()} 로 받은 배열은 락 없이 읽을 수 있다.</p>
+ * encode 는 한 스레드에서만 호출해야 한다. ({@link MemberColumnStore} 의 락 안에서 호출)
+ */
+final class StringDictionary {
+
+    private byte[] data;
+    private int dataSize;
+    private int[] offsets;
+    private int count;
+    private int[] table;
+
+    StringDictionary(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.data = new byte[capacity * 8];
+        this.offsets = new int[capacity + 1];
+        this.table = new int[tableSizeFor(capacity)];
+    }
+
+    int encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes, 0, bytes.length);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int code = table[slot] - 1;
+            if (Arrays.equals(data, offsets[code], offsets[code + 1], bytes, 0, bytes.length)) {
+                return code;
+            }
+        }
+
+        int code = append(bytes);
+        //적재율 0.5 를 넘으면 테이블을 두 배로 늘린다.
+        if (count * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insert(table, code, hash);
+        }
+        return code;
+    }
+
+    int size() {
+        return count;
+    }
+
+    View view() {
+        return new View(data, offsets, count);
+    }
+
+    long estimatedBytes() {
+        return data.length + (long) offsets.length * Integer.BYTES + (long) table.length * Integer.BYTES;
+    }
+
+    private int append(byte[] bytes) {
+        if (dataSize + bytes.length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataSize + bytes.length));
+        }
+        if (count + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        System.arraycopy(bytes, 0, data, dataSize, bytes.length);
+        dataSize += bytes.length;
+        offsets[++count] = dataSize;
+        return count - 1;
+    }
+
+    private void rehash(int size) {
+        int[] newTable = new int[size];
+        for (int code = 0; code < count; code++) {
+            insert(newTable, code, hash(data, offsets[code], offsets[code + 1]));
+        }
+        table = newTable;
+    }
+
+    private static void insert(int[] table, int code, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = code + 1;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    /**
+     * 읽기 전용 사전, 만든 시점까지 발급된 코드만 읽는다.
+     */
+    static final class View {
+        private final byte[] data;
+        private final int[] offsets;
+        private final int count;
+
+        private View(byte[] data, int[] offsets, int count) {
+            this.data = data;
+            this.offsets = offsets;
+            this.count = count;
+        }
+
+        int size() {
+            return count;
+        }
+
+        String decode(int code) {
+            return new String(data, offsets[code], offsets[code + 1] - offsets[code], StandardCharsets.UTF_8);
+        }
+
+        boolean startsWith(int code, byte[] prefix) {
+            int from = offsets[code];
+            if (offsets[code + 1] - from < prefix.length) {
+                return false;
+            }
+            return Arrays.equals(data, from, from + prefix.length, prefix, 0, prefix.length);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpa.audit;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 감사(auditing) 생략 여부
+ * <p>대량 등록처럼 생성자/시간 기록이 필요 없는 작업은 {@link #withoutAuditing(Supplier)} 안에서 실행한다.
+ * 이때 AuditorAware, DateTimeProvider 가 빈 값을 돌려주므로 AuditingEntityListener 가 아무 값도 채우지 않는다.</p>
+ */
+public abstract class AuditContext {
+    private static final ThreadLocal<Boolean> suppressed = new ThreadLocal<>();
+
+    private AuditContext() {
+    }
+
+    public static boolean isSuppressed() {
+        return Boolean.TRUE.equals(suppressed.get());
+    }
+
+    public static <T> T withoutAuditing(Supplier<T> action) {
+        Boolean previous = suppressed.get();
+        suppressed.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                suppressed.remove();
+            } else {
+                suppressed.set(previous);
+            }
+        }
+    }
+}
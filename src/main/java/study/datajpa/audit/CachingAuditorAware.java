@@ -0,0 +1,68 @@
+package study.datajpa.audit;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * 감사자(auditor)를 HTTP 요청 또는 트랜잭션 단위로 한 번만 구한다.
+ * <p>AuditingEntityListener 는 insert/update 마다 AuditorAware 를 호출하므로,
+ * 세션 조회나 UUID 생성처럼 비싼 작업을 매번 하지 않도록 캐시한다.</p>
+ */
+public class CachingAuditorAware implements AuditorAware<String> {
+
+    private static final String REQUEST_ATTRIBUTE = CachingAuditorAware.class.getName() + ".AUDITOR";
+
+    private final AuditorAware<String> delegate;
+    private final boolean enabled;
+
+    /**
+     * @param enabled false 면 캐시 없이 매번 delegate 호출 (기존 동작)
+     */
+    public CachingAuditorAware(AuditorAware<String> delegate, boolean enabled) {
+        this.delegate = delegate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<String> getCurrentAuditor() {
+        if (AuditContext.isSuppressed()) {
+            return Optional.empty();
+        }
+        if (!enabled) {
+            return delegate.getCurrentAuditor();
+        }
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Optional<String> auditor = (Optional<String>) request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (auditor == null) {
+                auditor = delegate.getCurrentAuditor();
+                request.setAttribute(REQUEST_ATTRIBUTE, auditor, RequestAttributes.SCOPE_REQUEST);
+            }
+            return auditor;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Optional<String> auditor = (Optional<String>) TransactionSynchronizationManager.getResource(this);
+            if (auditor == null) {
+                auditor = delegate.getCurrentAuditor();
+                TransactionSynchronizationManager.bindResource(this, auditor);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(CachingAuditorAware.this);
+                    }
+                });
+            }
+            return auditor;
+        }
+
+        return delegate.getCurrentAuditor();
+    }
+}
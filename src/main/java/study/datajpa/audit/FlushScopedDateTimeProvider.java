@@ -0,0 +1,133 @@
+package study.datajpa.audit;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 감사 시간 제공
+ * <p>트랜잭션 안에서는 처음 구한 시간을 flush 가 끝날 때까지 재사용한다.
+ * (한 번의 flush 로 반영되는 엔티티는 모두 같은 createTime/updateTime 을 가진다.)
+ * flush 가 끝나면 다음 감사 시간은 다시 구하므로, 긴 트랜잭션에서도 나중에 수정한 엔티티는 그때의 시간을 가진다.</p>
+ * <p>IDENTITY 전략 엔티티는 persist 시점에 insert 되므로 다음 flush 전까지 persist 한 엔티티끼리 시간을 공유한다.</p>
+ * <p>시스템 시간이 뒤로 조정되어도 이전에 준 시간보다 작은 값을 돌려주지 않는다. (UTC 시각 기준이라 서머타임 해제로
+ * 현지 시간이 되돌아가는 것은 그대로 반영한다.)</p>
+ */
+public class FlushScopedDateTimeProvider implements DateTimeProvider, FlushEventListener, AutoFlushEventListener {
+
+    private final Clock clock;
+    private final boolean enabled;
+    private final AtomicReference<Instant> last = new AtomicReference<>(Instant.MIN);
+
+    /**
+     * @param enabled false 면 매번 현재 시간 (기존 동작)
+     */
+    public FlushScopedDateTimeProvider(Clock clock, boolean enabled) {
+        this.clock = clock;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 하이버네이트 flush 리스너로 등록한다. (기본 flush 리스너 뒤에 실행되어 flush 가 끝난 후 시간을 버린다.)
+     * 빈 생성 중에 SessionFactory 를 꺼내면 백그라운드 JPA 부트스트랩을 기다리게 되므로 컨텍스트 초기화 후에 등록한다.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void register(ContextRefreshedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        EventListenerRegistry registry = event.getApplicationContext().getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.FLUSH, this);
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public Optional<TemporalAccessor> getNow() {
+        if (AuditContext.isSuppressed()) {
+            return Optional.empty();
+        }
+        if (!enabled) {
+            return Optional.of(LocalDateTime.now(clock));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.of(now());
+        }
+
+        FlushTime flushTime = (FlushTime) TransactionSynchronizationManager.getResource(this);
+        if (flushTime == null) {
+            flushTime = new FlushTime();
+            TransactionSynchronizationManager.bindResource(this, flushTime);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(FlushScopedDateTimeProvider.this);
+                }
+            });
+        }
+        if (flushTime.value == null) {
+            flushTime.value = now();
+        }
+        return Optional.of(flushTime.value);
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        reset();
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        if (event.isFlushRequired()) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        FlushTime flushTime = (FlushTime) TransactionSynchronizationManager.getResource(this);
+        if (flushTime != null) {
+            flushTime.value = null;
+        }
+    }
+
+    /**
+     * 시간이 앞으로 갈 때만 CAS 한다. (같은 시각을 여러 스레드가 읽는 경우 공유 변수에 쓰지 않는다.)
+     */
+    private LocalDateTime now() {
+        Instant now = clock.instant();
+        Instant prev = last.get();
+        while (now.isAfter(prev) && !last.compareAndSet(prev, now)) {
+            prev = last.get();
+        }
+        return LocalDateTime.ofInstant(now.isAfter(prev) ? now : prev, clock.getZone());
+    }
+
+    /**
+     * 트랜잭션에 한 번 바인딩하고 flush 마다 값만 비운다. (flush 마다 동기화를 다시 등록하지 않도록)
+     */
+    private static class FlushTime {
+        private LocalDateTime value;
+    }
+}
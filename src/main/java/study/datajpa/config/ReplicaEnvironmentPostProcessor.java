@@ -0,0 +1,27 @@
+package study.datajpa.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * 읽기/쓰기 DataSource 분리(datajpa.replica.enabled=true)를 켠 경우에만 spring.jpa.open-in-view 를 끈다.
+ * <p>요청 단위 영속성 컨텍스트(OSIV)는 요청 시작 시 커넥션 선택이 고정될 수 있어서 트랜잭션 단위 라우팅과 맞지 않는다.
+ * 라우팅을 쓰지 않으면 기존 동작(컨트롤러/뷰에서 지연 로딩 가능)을 유지한다.</p>
+ * 직접 spring.jpa.open-in-view 를 지정했다면 그 값을 따른다.
+ */
+public class ReplicaEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    private static final String OPEN_IN_VIEW = "spring.jpa.open-in-view";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        boolean enabled = environment.getProperty("datajpa.replica.enabled", Boolean.class, false);
+        if (enabled && !environment.containsProperty(OPEN_IN_VIEW)) {
+            environment.getPropertySources().addLast(new MapPropertySource("replicaRouting", Map.of(OPEN_IN_VIEW, false)));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * replica 사용 가능 여부
+ * 연결할 수 없거나, primary 의 테이블이 replica 에 없거나(스키마가 복제되지 않음),
+ * 복제 지연이 maxLagSeconds 를 넘으면 사용 불가로 표시하고, 읽기는 primary 로 보낸다.
+ * 처음 확인하기 전에는 사용 불가로 본다.
+ */
+@Slf4j
+public class ReplicaHealth {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaProperties properties;
+    private volatile boolean available = false;
+
+    public ReplicaHealth(DataSource primary, DataSource replica, ReplicaProperties properties) {
+        this.primary = primary;
+        this.replica = replica;
+        this.properties = properties;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void check() {
+        boolean previous = available;
+        available = measure();
+        if (previous != available) {
+            log.warn("replica {}", available ? "복구, 읽기를 replica 로 보냅니다." : "사용 불가, 읽기를 primary 로 보냅니다.");
+        }
+    }
+
+    private boolean measure() {
+        try (Connection connection = replica.getConnection()) {
+            if (!connection.isValid(1)) {
+                return false;
+            }
+            Set<String> missing = missingTables(primaryTables(), connection);
+            if (!missing.isEmpty()) {
+                log.error("replica 에 primary 의 테이블이 없습니다: {} (스키마 복제 확인)", missing);
+                return false;
+            }
+            if (properties.getLagQuery() == null || properties.getLagQuery().isBlank()) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+                //지연 정보가 없으면(null) 복제가 동작하지 않는 것으로 본다.
+                if (!rs.next() || rs.getObject(1) == null) {
+                    return false;
+                }
+                return rs.getDouble(1) <= properties.getMaxLagSeconds();
+            }
+        } catch (Exception e) {
+            log.debug("replica 확인 실패", e);
+            return false;
+        }
+    }
+
+    private Set<String> primaryTables() throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            return tables(connection);
+        }
+    }
+
+    /**
+     * @return expected 중 connection 의 현재 스키마에 없는 테이블
+     */
+    private static Set<String> missingTables(Set<String> expected, Connection connection) throws SQLException {
+        Set<String> missing = new HashSet<>(expected);
+        missing.removeAll(tables(connection));
+        return missing;
+    }
+
+    private static Set<String> tables(Connection connection) throws SQLException {
+        Set<String> tables = new HashSet<>();
+        try (ResultSet rs = connection.getMetaData()
+                .getTables(connection.getCatalog(), connection.getSchema(), "%", null)) {
+            while (rs.next()) {
+                tables.add(rs.getString("TABLE_NAME").toUpperCase(Locale.ROOT));
+            }
+        }
+        return tables;
+    }
+}
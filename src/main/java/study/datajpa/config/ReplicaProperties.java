@@ -0,0 +1,32 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 읽기 전용 복제(replica) DB 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.replica")
+public class ReplicaProperties {
+    /**
+     * false 면 spring.datasource 하나만 사용
+     */
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    /**
+     * 복제 지연(초)이 이 값을 넘으면 읽기도 primary 로 보낸다.
+     */
+    private long maxLagSeconds = 5;
+    /**
+     * 복제 지연(초)을 돌려주는 쿼리, 비어 있으면 연결 가능 여부만 확인한다.
+     * 예) PostgreSQL: select extract(epoch from now() - pg_last_xact_replay_timestamp())
+     */
+    private String lagQuery;
+    private long checkIntervalMs = 5000;
+}
@@ -0,0 +1,92 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 읽기/쓰기 DataSource 분리 (datajpa.replica.enabled=true)
+ * <ul>
+ *     <li>쓰기, readOnly 가 아닌 트랜잭션 -> spring.datasource (primary)</li>
+ *     <li>@Transactional(readOnly = true) -> datajpa.replica</li>
+ * </ul>
+ * readOnly 트랜잭션은 하이버네이트 세션도 읽기 전용(스냅샷 X, 변경 감지 X), FlushMode.MANUAL 로 동작한다. (JpaTransactionManager 기본 동작)
+ * 커넥션이 트랜잭션 단위로 선택되므로 spring.jpa.open-in-view 는 꺼야 한다. ({@link ReplicaEnvironmentPostProcessor} 가 끈다.)
+ * <p>replica 스키마는 만들지 않는다. primary 의 테이블이 replica 에 없으면 {@link ReplicaHealth} 가 사용 불가로 표시한다.</p>
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private final HikariDataSource primaryDataSource;
+    private final HikariDataSource replicaDataSource;
+    private final ReplicaHealth replicaHealth;
+
+    public ReplicaRoutingConfig(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties,
+                                Environment environment) {
+        //p6spy 가 한 번만 감싸도록 primary/replica 는 빈으로 등록하지 않는다.
+        this.primaryDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        //빈이 아니므로 스프링 부트가 spring.datasource.hikari.* 를 적용하지 않는다. (DataSourceConfiguration.Hikari 와 같은 방식으로 바인딩)
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryDataSource));
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(replicaProperties.getUrl());
+        replica.setUsername(replicaProperties.getUsername());
+        replica.setPassword(replicaProperties.getPassword());
+        replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        replica.setReadOnly(true);
+        replica.setPoolName("replica");
+        this.replicaDataSource = replica;
+        this.replicaHealth = new ReplicaHealth(primaryDataSource, replica, replicaProperties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaHealth);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        targets.put(ReplicaRoutingDataSource.REPLICA, replicaDataSource);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReplicaHealth replicaHealth() {
+        return replicaHealth;
+    }
+
+    @PreDestroy
+    public void close() {
+        replicaDataSource.close();
+        primaryDataSource.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class) //스키마가 만들어진 후 첫 확인 (그 전에는 읽기도 primary)
+    @Scheduled(fixedDelayString = "${datajpa.replica.check-interval-ms:5000}")
+    public void checkReplica() {
+        replicaHealth.check();
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @Transactional(readOnly = true) 이면 replica, 아니면 primary
+ * <p>트랜잭션 시작 시점에는 readOnly 여부가 아직 바인딩되지 않으므로
+ * LazyConnectionDataSourceProxy 로 감싸서 실제 SQL 을 실행할 때 커넥션을 고르게 해야 한다.</p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaHealth replicaHealth;
+
+    public ReplicaRoutingDataSource(ReplicaHealth replicaHealth) {
+        this.replicaHealth = replicaHealth;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaHealth.isAvailable()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
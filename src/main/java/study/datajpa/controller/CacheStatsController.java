@@ -0,0 +1,74 @@
+package study.datajpa.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.repository.support.MemberUsernameIndex;
+import study.datajpa.repository.support.QueryPlanCacheMetrics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 2차 캐시, 쿼리 캐시 적중 통계 (hibernate.generate_statistics: true 필요)
+ * username 인덱스({@link MemberUsernameIndex}) 적중 통계
+ * 쿼리 계획 캐시({@link QueryPlanCacheMetrics}) 적중 통계, 크기
+ */
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+    private final EntityManagerFactory emf;
+    private final MemberUsernameIndex memberUsernameIndex;
+    private final QueryPlanCacheMetrics queryPlanCacheMetrics;
+
+    @GetMapping("/admin/cache-stats")
+    public Map<String, Object> cacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("secondLevelCache", hitMiss(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        result.put("queryCache", hitMiss(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, hitMiss(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+        result.put("regions", regions);
+
+        CacheStats usernameIndex = memberUsernameIndex.stats();
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("hit", usernameIndex.hitCount());
+        index.put("miss", usernameIndex.missCount());
+        index.put("eviction", usernameIndex.evictionCount());
+        index.put("hitRate", usernameIndex.hitRate());
+        result.put("usernameIndex", index);
+
+        Map<String, Object> queryPlan = new LinkedHashMap<>();
+        queryPlan.put("hit", statistics.getQueryPlanCacheHitCount());
+        queryPlan.put("miss", statistics.getQueryPlanCacheMissCount());
+        queryPlan.put("hitRate", queryPlanCacheMetrics.hitRate());
+        queryPlan.put("size", queryPlanCacheMetrics.size());
+        result.put("queryPlanCache", queryPlan);
+        return result;
+    }
+
+    private Map<String, Object> hitMiss(long hit, long miss, long put) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hit", hit);
+        map.put("miss", miss);
+        map.put("put", put);
+        map.put("hitRate", hit + miss == 0 ? 0.0 : (double) hit / (hit + miss));
+        return map;
+    }
+}
@@ -5,19 +5,38 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import study.datajpa.domain.Member;
+import study.datajpa.dto.KeysetWindow;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberCursor;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.AsyncMemberService;
+import study.datajpa.service.MemberExportService;
 
 import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_KEYSET_SIZE = 100;
+
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final AsyncMemberService asyncMemberService;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
@@ -40,10 +59,11 @@ public class MemberController {
 
     @GetMapping("/members")
     public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
-        Page<MemberDto> map = page.map(m -> new MemberDto(m.getId(), m.getUsername(), null));
+        //엔티티 없이 DTO 로 바로 조회, count 는 테이블 통계 추정치 사용 (매 요청 count(*) 방지)
+        return memberRepository.findMemberDtoPage(pageable);
 
-        return map;
+//        Page<Member> page = memberRepository.findPageAll(pageable);
+//        return page.map(m -> new MemberDto(m.getId(), m.getUsername(), null));
 
 //        return memberRepository.findAll(pageable)
 //                .map(m -> new MemberDto(m.getId(), m.getUsername(), null));
@@ -52,6 +72,72 @@ public class MemberController {
 //                .map(MemberDto::new);
     }
 
+    /**
+     * <h1>키셋 페이징</h1>
+     * <p>응답의 nextCursor 를 다음 요청의 cursor 로 그대로 넘긴다.</p>
+     * <p>OFFSET 과 count 쿼리가 없으므로 깊은 페이지도 첫 페이지와 비용이 같다.</p>
+     */
+    @GetMapping("/members/keyset")
+    public KeysetWindow<MemberDto> keysetList(@RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "size", defaultValue = "5") int size) {
+        if (size < 1 || size > MAX_KEYSET_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size 는 1~" + MAX_KEYSET_SIZE + " 사이여야 합니다.");
+        }
+
+        MemberCursor memberCursor = null;
+        if (cursor != null) {
+            try {
+                memberCursor = MemberCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 커서입니다.", e);
+            }
+        }
+        return memberRepository.findMemberDtoWindow(memberCursor, size);
+    }
+
+    /**
+     * <h1>회원 전체 내보내기</h1>
+     * <p>format=ndjson(기본) | csv</p>
+     * <p>조회한 행을 바로 응답으로 흘려보낸다. (전체 결과를 메모리에 올리지 않음)</p>
+     */
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members.csv")
+                    .body(memberExportService::exportCsv);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(memberExportService::exportNdjson);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "지원하지 않는 형식입니다: " + format);
+    }
+
+    /**
+     * <h1>비동기 조회</h1>
+     * <p>/members, /members/{id} 와 같은 결과를 작업 스레드 풀에서 만든다.</p>
+     * <p>톰캣 스레드는 DB 를 기다리지 않고 바로 반환되므로, DB 가 느려도 다른 요청(헬스 체크 등)을 받을 수 있다.</p>
+     * <p>DB 처리량 자체는 커넥션 풀 크기로 제한되며, 작업 큐가 가득 차면 503 으로 거절한다.</p>
+     */
+    @GetMapping("/async/members")
+    public CompletableFuture<Page<MemberDto>> asyncList(@PageableDefault(size = 5) Pageable pageable) {
+        return asyncMemberService.findPage(pageable);
+    }
+
+    @GetMapping("/async/members/{id}")
+    public CompletableFuture<String> asyncFindMember(@PathVariable("id") Long id) {
+        return asyncMemberService.findUsername(id)
+                .thenApply(username -> username.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> rejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("요청이 많아 처리할 수 없습니다.");
+    }
+
 //    @PostConstruct
 //    public void init() {
 //        for(int i = 0; i < 100; i++) {
@@ -0,0 +1,36 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.analytics.MemberColumnStore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 회원 집계 ({@link MemberColumnStore}, DB 를 거치지 않는다.)
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberStatsController {
+
+    private final MemberColumnStore memberColumnStore;
+
+    @GetMapping("/admin/member-stats")
+    public Map<String, Object> memberStats(@RequestParam(defaultValue = "10") int ageBucket) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", memberColumnStore.count());
+        result.put("ageHistogram", memberColumnStore.ageHistogram(ageBucket));
+        result.put("countByTeam", memberColumnStore.countByTeam());
+        result.put("countWithoutTeam", memberColumnStore.countWithoutTeam());
+        result.put("estimatedBytes", memberColumnStore.estimatedBytes());
+        return result;
+    }
+
+    @GetMapping("/admin/member-stats/username-prefix")
+    public long countByUsernamePrefix(@RequestParam String prefix) {
+        return memberColumnStore.countByUsernamePrefix(prefix);
+    }
+}
@@ -1,18 +1,36 @@
 package study.datajpa.domain;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.util.Assert;
+import study.datajpa.analytics.MemberColumnStoreListener;
+import study.datajpa.repository.support.MemberUsernameIndexListener;
 
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners({
+        MemberUsernameIndexListener.class, //username 인덱스 무효화
+        MemberColumnStoreListener.class //분석용 컬럼 스냅샷 갱신
+})
+@Table(indexes = {
+        //username 조회, username + age 조회, username 정렬 (username 단독 인덱스는 이 인덱스로 대체)
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        @Index(name = "idx_member_age", columnList = "age"), //findByAge, bulkAgePlus
+        @Index(name = "idx_member_team_id", columnList = "team_id") //팀 조인, Team.members 조회
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 //애플리케이션 로딩 시점에서 컴파일 에러 발견 가능
 @NamedQuery(
         name = "Member.findByUsername",
-        query = "select m from Member m where m.username = :username"
+        query = "select m from Member m where m.username = :username",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true") //쿼리 캐시
 )
 public class Member extends BaseEntity {
     @Id
@@ -21,6 +39,9 @@ public class Member extends BaseEntity {
     private Long id;
     private String username;
     private int age;
+    @Version //낙관적 락, 수정할 때 버전이 다르면 OptimisticLockException
+    @Setter(AccessLevel.NONE)
+    private Long version;
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -42,7 +63,12 @@ public class Member extends BaseEntity {
     }
 
     //===연관관계 편의 메서드===//
+    //이전 팀의 members 는 이미 로딩된 경우에만 뺀다. (로딩되지 않았으면 다음에 읽을 때 DB 에서 맞게 읽힌다.)
     public void changeTeam(Team team) {
+        if (this.team != null && Hibernate.isInitialized(this.team)
+                && Hibernate.isInitialized(this.team.getMembers())) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
         team.getMembers().add(this);
     }
@@ -1,12 +1,20 @@
 package study.datajpa.domain;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //2차 캐시, 거의 변경되지 않는 엔티티
+@BatchSize(size = 100) //Member.team 프록시 초기화 시 팀을 IN 절로 묶어서 조회
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) //MemberSpec.teamName
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
@@ -16,6 +24,12 @@ public class Team {
     @Column(name = "team_id")
     private Long id;
     private String name;
+    @Version //낙관적 락, 수정할 때 버전이 다르면 OptimisticLockException
+    @Setter(AccessLevel.NONE)
+    private Long version;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //컬렉션 캐시는 회원 id 만 저장 -> Member 도 캐시 대상이어야 효과가 있다.
+    @BatchSize(size = 100) //여러 팀의 members 를 IN 절로 묶어서 조회
+    @OptimisticLock(excluded = true) //회원의 팀 변경(연관관계 주인은 Member)으로 팀 버전이 오르지 않도록
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
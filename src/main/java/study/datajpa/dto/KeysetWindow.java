@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 키셋 페이징 결과
+ * <p>전체 개수(count 쿼리) 없이 다음 페이지 존재 여부와 다음 커서 토큰만 제공한다.</p>
+ */
+@Getter
+@ToString
+public class KeysetWindow<T> {
+    private final List<T> content;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public KeysetWindow(List<T> content, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.repository;
+
+import study.datajpa.domain.Item;
+
+import java.util.Collection;
+
+/**
+ * id 를 직접 할당하는 Item 의 대량 등록
+ * save() 는 id 가 있으면 merge() 를 호출해서 select 후 insert 를 하므로, 새 데이터만 넣을 때는 아래 메서드를 사용한다.
+ */
+public interface ItemRepositoryCustom {
+    /**
+     * 무조건 persist (select 없음), insert 를 batchSize 단위로 묶어서 실행한다.
+     * 이미 존재하는 id 가 있으면 제약조건 위반 예외가 발생한다.
+     * 배치마다 flush 하고 등록한 Item 만 detach 한다. (호출한 쪽이 관리하던 엔티티는 그대로 영속 상태)
+     * JDBC 배치 크기는 이 세션에만 적용하고 끝나면 되돌린다.
+     *
+     * @return 등록한 건수
+     */
+    int insertAll(Collection<Item> items);
+
+    /**
+     * 없는 id 만 등록한다. (DB MERGE ... WHEN NOT MATCHED)
+     * 엔티티를 거치지 않으므로 영속성 컨텍스트에 올라가지 않는다.
+     *
+     * @return 실제로 등록된 건수
+     */
+    int insertIfAbsent(Collection<Item> items);
+}
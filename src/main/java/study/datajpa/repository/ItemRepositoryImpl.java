@@ -0,0 +1,91 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Item;
+import study.datajpa.repository.support.PageCountSupport;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    /**
+     * H2, 표준 SQL MERGE 문법 (MySQL 이라면 insert ignore, PostgreSQL 이라면 on conflict do nothing)
+     */
+    private static final String INSERT_IF_ABSENT = "merge into item t" +
+            " using (values (cast(? as varchar(255)), cast(? as timestamp))) s(id, create_date)" +
+            " on t.id = s.id" +
+            " when not matched then insert (id, create_date) values (s.id, s.create_date)";
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final PageCountSupport pageCountSupport;
+
+    @Value("${datajpa.bulk.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public int insertAll(Collection<Item> items) {
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            int count = 0;
+            List<Item> batch = new ArrayList<>(Math.min(items.size(), batchSize));
+            for (Item item : items) {
+                em.persist(item);
+                batch.add(item);
+                count++;
+                if (batch.size() == batchSize) {
+                    flushAndDetach(batch);
+                }
+            }
+            flushAndDetach(batch);
+            return count;
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+            pageCountSupport.evict(Item.class);
+        }
+    }
+
+    /**
+     * batchSize 만큼 모아서 insert 배치 실행 후 등록한 Item 만 준영속으로 (호출한 쪽이 관리하던 엔티티는 그대로)
+     */
+    private void flushAndDetach(List<Item> batch) {
+        em.flush();
+        batch.forEach(em::detach);
+        batch.clear();
+    }
+
+    @Override
+    @Transactional
+    public int insertIfAbsent(Collection<Item> items) {
+        //flush 되지 않은 persist 가 있으면 MERGE 가 그 행을 보지 못하므로 먼저 반영
+        em.flush();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] result = jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, items, batchSize, (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setTimestamp(2, now);
+        });
+        pageCountSupport.evict(Item.class);
+
+        int inserted = 0;
+        for (int[] batch : result) {
+            for (int rows : batch) {
+                inserted += Math.max(rows, 0);
+            }
+        }
+        return inserted;
+    }
+}
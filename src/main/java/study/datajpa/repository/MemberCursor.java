@@ -0,0 +1,55 @@
+package study.datajpa.repository;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징 커서
+ * <p>(username desc nulls last, member_id asc) 정렬에서 마지막으로 읽은 행의 위치를 기억한다.
+ * username 이 null 이면 토큰에 구분자 없이 id 만 넣는다.</p>
+ * <p>클라이언트에는 {@link #encode()} 로 만든 불투명 토큰만 노출한다.</p>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class MemberCursor {
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public String encode() {
+        //username 에 구분자가 들어갈 수 있으므로 id 를 앞에 둔다.
+        String raw = username == null ? String.valueOf(id) : id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException 토큰 형식이 올바르지 않은 경우
+     */
+    public static MemberCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int idx = raw.indexOf(SEPARATOR);
+        if (idx == 0) {
+            throw new IllegalArgumentException("잘못된 커서 토큰: " + token);
+        }
+        try {
+            if (idx < 0) {
+                return new MemberCursor(null, Long.valueOf(raw)); //username 이 null 인 회원
+            }
+            return new MemberCursor(raw.substring(idx + 1), Long.valueOf(raw.substring(0, idx)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서 토큰: " + token, e);
+        }
+    }
+}
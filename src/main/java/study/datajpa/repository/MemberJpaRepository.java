@@ -1,7 +1,11 @@
 package study.datajpa.repository;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import study.datajpa.domain.Member;
+import study.datajpa.repository.support.BulkChangeEvent;
+import study.datajpa.repository.support.PageCountSupport;
+import study.datajpa.repository.support.WarmupQuery;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -10,20 +14,40 @@ import java.util.Optional;
 
 @Repository
 public class MemberJpaRepository {
+    @WarmupQuery
+    private static final String FIND_ALL = "select m from Member m";
+    @WarmupQuery
+    private static final String COUNT = "select count(m) from Member m";
+    @WarmupQuery
+    private static final String FIND_BY_PAGE = "select m from Member m where m.age = :age order by m.username desc";
+    @WarmupQuery
+    private static final String TOTAL_COUNT = "select count(m) from Member m where m.age = :age";
+    @WarmupQuery
+    private static final String BULK_AGE_PLUS = "update versioned Member m set m.age = m.age + 1 where m.age >= :age";
+
     @PersistenceContext
     private EntityManager em;
+    private final PageCountSupport pageCountSupport;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public MemberJpaRepository(PageCountSupport pageCountSupport, ApplicationEventPublisher eventPublisher) {
+        this.pageCountSupport = pageCountSupport;
+        this.eventPublisher = eventPublisher;
+    }
 
     public Member save(Member member) {
         em.persist(member);
+        pageCountSupport.evict(Member.class);
         return member;
     }
 
     public void delete(Member member) {
         em.remove(member);
+        pageCountSupport.evict(Member.class);
     }
 
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class)
+        return em.createQuery(FIND_ALL, Member.class)
                 .getResultList();
     }
 
@@ -33,7 +57,7 @@ public class MemberJpaRepository {
     }
 
     public long count() {
-        return em.createQuery("select count(m) from Member m",Long.class)
+        return em.createQuery(COUNT, Long.class)
                 .getSingleResult();
     }
 
@@ -48,7 +72,7 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findByPage(int age, int offset, int limit) {
-        return em.createQuery("select m from Member m where m.age = :age order by m.username desc", Member.class)
+        return em.createQuery(FIND_BY_PAGE, Member.class)
                 .setParameter("age", age)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
@@ -56,16 +80,18 @@ public class MemberJpaRepository {
     }
 
     public long totalCount(int age) {
-        return em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+        return em.createQuery(TOTAL_COUNT, Long.class)
                 .setParameter("age", age)
                 .getSingleResult();
     }
 
     public int bulkAgePlus(int age) {
-     return em.createQuery("update Member m set m.age = m.age + 1" +
-                " where m.age >= :age")
+        int count = em.createQuery(BULK_AGE_PLUS)
                 .setParameter("age", age)
                 .executeUpdate();
+        pageCountSupport.evict(Member.class);
+        eventPublisher.publishEvent(new BulkChangeEvent(Member.class));
+        return count;
     }
 
 }
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import study.datajpa.domain.Member;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.dto.UsernameOnlyDto;
+import study.datajpa.repository.support.UsernameLookup;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
@@ -21,6 +22,7 @@ import java.util.Optional;
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor {
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
+    @UsernameLookup
     @Query(name = "Member.findByUsername")
     List<Member> findByUsername(@Param("username") String username);
 
@@ -38,8 +40,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
 
+    @UsernameLookup
     List<Member> findListByUsername(String username); //컬렉션
+    @UsernameLookup
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true")) //쿼리 캐시
     Member findMemberByUsername(String username); //단건
+    @UsernameLookup
     Optional<Member> findOptionalByUsername(String username); //단건 Optional
     Page<Member> findByAge(int age, Pageable pageable);
 
@@ -52,8 +58,8 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * 생략시 -> org.hibernate.hql.internal.QueryExecutionRequestException: Not supported for DML operations
      */
     @Modifying(clearAutomatically = true) //em.clear();
-    @Query("update Member m set m.age = m.age + 1" +
-            " where m.age >= :age")
+    //versioned: 하이버네이트가 @Version 을 올린다. (BulkMutationSupport 와 같은 방식)
+    @Query("update versioned Member m set m.age = m.age + 1 where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
     @Query("select m from Member m left join fetch m.team")
@@ -73,7 +79,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     /**
      * JPA 쿼리 힌트(SQL 힌트가 아니라 JPA 구현체에게 제공하는 힌트)
      */
-    @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheable", value = "true")
+    })
     Member findReadOnlyByUsername(String username);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE) //다른 트랜잭션에서 읽기도 쓰기도 못함. (배타적 잠금)
@@ -83,11 +92,13 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     List<UsernameOnlyDto> findProjectionsByUsername(@Param("username") String username);
     <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> type);
 
+    @UsernameLookup
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
 
+    //on 절이 없으면 회원 x 팀 카타시안 곱이 된다. 목록 조회는 findNativeMemberDtoPage 권장 (프록시 없이 DTO)
     @Query(value = "select m.member_id as id, m.username, t.name as teamName " +
-            "from member m left join team t",
+            "from member m left join team t on t.team_id = m.team_id",
             countQuery = "select count(*) from member",
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
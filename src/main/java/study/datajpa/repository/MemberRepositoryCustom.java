@@ -1,9 +1,108 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import study.datajpa.domain.Member;
+import study.datajpa.dto.KeysetWindow;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.support.CountMode;
+import study.datajpa.repository.support.CountStrategy;
+import study.datajpa.repository.support.QuerySpec;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /**
+     * 키셋(seek) 페이징
+     * (username desc, member_id asc) 기준으로 cursor 다음 행부터 size 개를 조회한다.
+     * OFFSET 을 사용하지 않으므로 몇 번째 페이지든 비용이 같고, count 쿼리도 실행하지 않는다.
+     *
+     * @param cursor 이전 페이지의 마지막 위치, 첫 페이지는 null
+     */
+    KeysetWindow<MemberDto> findMemberDtoWindow(MemberCursor cursor, int size);
+
+    /**
+     * count 결과를 잠깐 캐시하는 findByAge
+     */
+    @CountStrategy(value = CountMode.CACHED, ttlSeconds = 10)
+    Page<Member> findPageByAge(int age, Pageable pageable);
+
+    /**
+     * 전체 목록, count 는 테이블 통계 추정치를 사용
+     */
+    @CountStrategy(CountMode.ESTIMATED)
+    Page<Member> findPageAll(Pageable pageable);
+
+    /**
+     * 목록 화면용 DTO 페이징, 엔티티를 만들지 않고 필요한 컬럼(id, username, team.name)만 조회한다.
+     * (영속성 컨텍스트, 스냅샷, 프록시 없음) count 는 테이블 통계 추정치를 사용
+     * 정렬은 Member 속성(username, age 등)만 가능하다.
+     */
+    @CountStrategy(CountMode.ESTIMATED)
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    /**
+     * count 쿼리 없이 다음 페이지 존재 여부만 확인하는 findMemberAllCountBy
+     */
+    @CountStrategy(CountMode.HAS_NEXT)
+    Page<Member> findMemberAllPage(Pageable pageable);
+
+    /**
+     * 대용량 조회용 스트림 (팀 fetch join)
+     * forward-only 커서로 fetchSize 만큼씩 읽고, clearEvery 건마다 영속성 컨텍스트를 비워서 메모리 사용량을 일정하게 유지한다.
+     * 트랜잭션 안에서 호출해야 하며, 다 쓰고 나면 반드시 close 해야 한다. (try-with-resources)
+     * 이미 clear 된 엔티티는 준영속 상태이므로 변경해도 DB에 반영되지 않는다.
+     */
+    Stream<Member> streamAllWithTeam(int fetchSize, int clearEvery);
+
+    /**
+     * findByNativeProjection 대체: 회원 + 팀 이름을 네이티브 SQL(JDBC)로 조회해서 MemberDto 로 바로 만든다.
+     * 인터페이스 프록시 대신 컬럼 위치로 읽는 RowMapper 를 사용한다.
+     * 정렬은 id, username, age, teamName 만 가능하고, 없으면 id 순서
+     */
+    Page<MemberDto> findNativeMemberDtoPage(Pageable pageable);
+
+    /**
+     * findNativeMemberDtoPage 의 스트림 버전 (id 순서), 엔티티/영속성 컨텍스트를 거치지 않는다.
+     * 트랜잭션 안에서 호출해야 하며, 다 쓰고 나면 반드시 close 해야 한다. (try-with-resources)
+     */
+    Stream<MemberDto> streamNativeMemberDto(int fetchSize);
+
+    /**
+     * bulkAgePlus 를 대상 회원 chunkSize 명씩(id 순서) 나눠서 실행
+     * 영속성 컨텍스트 전체를 비우지 않고, 관리 중인 회원 중 대상이 된 회원만 refresh 한다.
+     */
+    int bulkAgePlusChunked(int age, int chunkSize);
+
+    /**
+     * age 미만 회원 삭제, 관리 중인 회원 중 삭제된 회원만 detach 한다.
+     */
+    int bulkDeleteByAgeLessThan(int age, int chunkSize);
+
+    /**
+     * 회원 전체를 id 범위 chunkSize 로 나눠서 parallelism 개씩 동시에 조회 (관리자 리포트용)
+     * 청크마다 별도 트랜잭션/커넥션을 사용하므로 호출한 트랜잭션에서 아직 커밋하지 않은 변경은 보이지 않는다.
+     *
+     * @param ordered true 면 id 순서, false 면 먼저 조회된 청크부터
+     */
+    List<MemberDto> findAllMemberDtoParallel(int chunkSize, int parallelism, boolean ordered);
+
+    /**
+     * findProjectionsByUsername 과 같지만, 중첩 프로젝션과 SpEL(@Value) 프로젝션도 필요한 컬럼만 조회한다.
+     * 예) NestedClosedProjections -> select j1.id, j1.name, e.username from Member e left join e.team j1 (getter 이름순)
+     *
+     * @see study.datajpa.repository.support.ProjectionQuerySupport
+     */
+    <T> List<T> findProjectedByUsername(String username, Class<T> type);
+
+    /**
+     * MemberSpec 조합으로 검색, 같은 조합(값 제외)은 같은 JPQL 을 재사용한다.
+     * 예) MemberSpec.username("m1").and(MemberSpec.teamName("teamA"))
+     */
+    List<Member> findAllBySpec(QuerySpec<Member> spec);
+
+    Page<Member> findAllBySpec(QuerySpec<Member> spec, Pageable pageable);
 }
@@ -1,24 +1,316 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
 import study.datajpa.domain.Member;
+import study.datajpa.dto.KeysetWindow;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.support.BulkMutationSupport;
+import study.datajpa.repository.support.PageCountSupport;
+import study.datajpa.repository.support.ParallelScanSupport;
+import study.datajpa.repository.support.ProjectionQuerySupport;
+import study.datajpa.repository.support.QuerySpec;
+import study.datajpa.repository.support.SpecificationQuerySupport;
+import study.datajpa.repository.support.WarmupQuery;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.sql.PreparedStatement;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 리포지토리 인터페이스 이름 + Impl
  * 스프링 데이터 JPA가 인식해서 스프링 빈으로 등록
  */
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    @WarmupQuery
+    private static final String FIND_ALL = "select m from Member m";
+    @WarmupQuery
+    private static final String COUNT_ALL = "select count(m) from Member m";
+    @WarmupQuery
+    private static final String COUNT_ALL_USERNAME = "select count(m.username) from Member m";
+    @WarmupQuery
+    private static final String FIND_BY_AGE = "select m from Member m where m.age = :age";
+    @WarmupQuery
+    private static final String COUNT_BY_AGE = "select count(m) from Member m where m.age = :age";
+    @WarmupQuery
+    private static final String MEMBER_DTO = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+            " from Member m left join m.team t";
+    /**
+     * username 이 null 인 회원은 맨 뒤 (DB 기본 null 정렬에 맡기지 않는다.)
+     */
+    private static final String MEMBER_DTO_WINDOW_ORDER = " order by m.username desc nulls last, m.id asc";
+    @WarmupQuery
+    private static final String MEMBER_DTO_WINDOW_FIRST = MEMBER_DTO + MEMBER_DTO_WINDOW_ORDER;
+    /**
+     * (username, id) 가 커서보다 "뒤"인 행만 조회 -> 인덱스를 타고 바로 시작 위치로 이동
+     * username 이 null 인 회원은 모든 username 보다 뒤다.
+     */
+    @WarmupQuery
+    private static final String MEMBER_DTO_WINDOW_NEXT = MEMBER_DTO +
+            " where m.username < :username or (m.username = :username and m.id > :id) or m.username is null" +
+            MEMBER_DTO_WINDOW_ORDER;
+    /**
+     * 커서가 username 이 null 인 회원이면 남은 null 회원만 id 순서로
+     */
+    @WarmupQuery
+    private static final String MEMBER_DTO_WINDOW_NEXT_NULL = MEMBER_DTO +
+            " where m.username is null and m.id > :id" + MEMBER_DTO_WINDOW_ORDER;
+    @WarmupQuery
+    private static final String STREAM_WITH_TEAM = "select m from Member m left join fetch m.team order by m.id";
+
+    /**
+     * 회원 + 팀 이름 (컬럼 순서 고정: member_id, username, team name -> MEMBER_DTO_MAPPER 가 위치로 읽는다.)
+     */
+    private static final String NATIVE_MEMBER_DTO = "select m.member_id, m.username, t.name" +
+            " from member m left join team t on t.team_id = m.team_id";
+    @WarmupQuery(nativeQuery = true)
+    private static final String NATIVE_MEMBER_DTO_STREAM = NATIVE_MEMBER_DTO + " order by m.member_id";
+    @WarmupQuery(nativeQuery = true)
+    private static final String NATIVE_COUNT = "select count(*) from member";
+    private static final RowMapper<MemberDto> MEMBER_DTO_MAPPER = (rs, rowNum) -> {
+        long id = rs.getLong(1);
+        return new MemberDto(rs.wasNull() ? null : id, rs.getString(2), rs.getString(3));
+    };
+    /**
+     * 네이티브 정렬 허용 속성 -> 컬럼
+     */
+    private static final Map<String, String> NATIVE_SORT_COLUMNS = Map.of(
+            "id", "m.member_id",
+            "username", "m.username",
+            "age", "m.age",
+            "teamName", "t.name");
+
     private final EntityManager em;
+    private final PageCountSupport pageCountSupport;
+    private final BulkMutationSupport bulkMutationSupport;
+    private final ParallelScanSupport parallelScanSupport;
+    private final ProjectionQuerySupport projectionQuerySupport;
+    private final SpecificationQuerySupport specificationQuerySupport;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public List<Member> findMemberCustom() {
-        return em.createQuery("select m from Member m", Member.class)
+        return em.createQuery(FIND_ALL, Member.class)
                 .getResultList();
     }
+
+    @Override
+    public KeysetWindow<MemberDto> findMemberDtoWindow(MemberCursor cursor, int size) {
+        Assert.isTrue(size > 0, "size 는 1 이상이어야 합니다.");
+
+        TypedQuery<MemberDto> query;
+        if (cursor == null) {
+            query = em.createQuery(MEMBER_DTO_WINDOW_FIRST, MemberDto.class);
+        } else if (cursor.getUsername() == null) {
+            query = em.createQuery(MEMBER_DTO_WINDOW_NEXT_NULL, MemberDto.class)
+                    .setParameter("id", cursor.getId());
+        } else {
+            query = em.createQuery(MEMBER_DTO_WINDOW_NEXT, MemberDto.class)
+                    .setParameter("username", cursor.getUsername())
+                    .setParameter("id", cursor.getId());
+        }
+
+        //다음 페이지 존재 여부를 알기 위해 하나 더 조회한다. (count 쿼리 X)
+        List<MemberDto> result = query.setMaxResults(size + 1).getResultList();
+        boolean hasNext = result.size() > size;
+        List<MemberDto> content = hasNext ? result.subList(0, size) : result;
+
+        String nextCursor = null;
+        if (hasNext) {
+            MemberDto last = content.get(content.size() - 1);
+            nextCursor = new MemberCursor(last.getUsername(), last.getId()).encode();
+        }
+        return new KeysetWindow<>(content, hasNext, nextCursor);
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable) {
+        return pageCountSupport.page(Member.class,
+                FIND_BY_AGE, COUNT_BY_AGE,
+                Collections.singletonMap("age", age), Member.class, pageable);
+    }
+
+    @Override
+    public Page<Member> findPageAll(Pageable pageable) {
+        return pageCountSupport.page(Member.class, FIND_ALL, COUNT_ALL,
+                Collections.emptyMap(), Member.class, pageable);
+    }
+
+    @Override
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable) {
+        //left join 은 회원 수를 바꾸지 않으므로 count 쿼리에는 팀 조인이 필요 없다.
+        return pageCountSupport.page(Member.class, MEMBER_DTO, COUNT_ALL,
+                Collections.emptyMap(), MemberDto.class, pageable);
+    }
+
+    @Override
+    public Page<Member> findMemberAllPage(Pageable pageable) {
+        return pageCountSupport.page(Member.class, FIND_ALL, COUNT_ALL_USERNAME,
+                Collections.emptyMap(), Member.class, pageable);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY) //메서드가 끝나도 커서를 읽는 동안 커넥션이 살아 있어야 한다.
+    public Stream<Member> streamAllWithTeam(int fetchSize, int clearEvery) {
+        Assert.isTrue(fetchSize > 0 && clearEvery > 0, "fetchSize, clearEvery 는 1 이상이어야 합니다.");
+
+        Session session = em.unwrap(Session.class);
+        ScrollableResults results = session.createQuery(STREAM_WITH_TEAM, Member.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true) //스냅샷을 만들지 않는다. (변경 감지 X)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        return StreamSupport.stream(new ClearingSpliterator(session, results, clearEvery), false)
+                .onClose(results::close);
+    }
+
+    @Override
+    public Page<MemberDto> findNativeMemberDtoPage(Pageable pageable) {
+        flushIfWritable();
+        StringBuilder sql = new StringBuilder(NATIVE_MEMBER_DTO).append(nativeOrderBy(pageable.getSort()));
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(jdbcTemplate.query(sql.toString(), MEMBER_DTO_MAPPER));
+        }
+        sql.append(" limit ? offset ?");
+        List<MemberDto> content = jdbcTemplate.query(sql.toString(), MEMBER_DTO_MAPPER,
+                pageable.getPageSize(), pageable.getOffset());
+        //left join 은 회원 수를 바꾸지 않으므로 count 는 member 만 센다.
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> jdbcTemplate.queryForObject(NATIVE_COUNT, Long.class));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY) //스트림을 다 읽을 때까지 커넥션이 살아 있어야 한다.
+    public Stream<MemberDto> streamNativeMemberDto(int fetchSize) {
+        Assert.isTrue(fetchSize > 0, "fetchSize 는 1 이상이어야 합니다.");
+        flushIfWritable();
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement ps = connection.prepareStatement(NATIVE_MEMBER_DTO_STREAM);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, MEMBER_DTO_MAPPER);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS) //청크마다 트랜잭션을 나누기 위해 여기서 시작하지 않는다.
+    public int bulkAgePlusChunked(int age, int chunkSize) {
+        return bulkMutationSupport.update(Member.class, "e.age = e.age + 1", "e.age >= :age",
+                Collections.singletonMap("age", age), chunkSize);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int bulkDeleteByAgeLessThan(int age, int chunkSize) {
+        return bulkMutationSupport.delete(Member.class, "e.age < :age",
+                Collections.singletonMap("age", age), chunkSize);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS) //호출한 스레드는 커넥션을 잡고 있을 필요가 없다.
+    public List<MemberDto> findAllMemberDtoParallel(int chunkSize, int parallelism, boolean ordered) {
+        return parallelScanSupport.scan(Member.class,
+                "select new study.datajpa.dto.MemberDto(e.id, e.username, t.name) from Member e left join e.team t",
+                null, Collections.emptyMap(), MemberDto.class, chunkSize, parallelism, ordered);
+    }
+
+    @Override
+    public <T> List<T> findProjectedByUsername(String username, Class<T> type) {
+        return projectionQuerySupport.findAll(Member.class, type, "e.username = :username",
+                Collections.singletonMap("username", username));
+    }
+
+    @Override
+    public List<Member> findAllBySpec(QuerySpec<Member> spec) {
+        return specificationQuerySupport.findAll(Member.class, spec);
+    }
+
+    @Override
+    public Page<Member> findAllBySpec(QuerySpec<Member> spec, Pageable pageable) {
+        return specificationQuerySupport.findAll(Member.class, spec, pageable);
+    }
+
+    /**
+     * 정렬 키가 유일하지 않으면 limit/offset 페이지가 매번 달라질 수 있으므로 마지막에 member_id 를 붙인다.
+     */
+    private String nativeOrderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder();
+        boolean orderedById = false;
+        for (Sort.Order order : sort) {
+            String column = NATIVE_SORT_COLUMNS.get(order.getProperty());
+            Assert.notNull(column, "정렬할 수 없는 속성입니다: " + order.getProperty());
+            orderBy.append(orderBy.length() == 0 ? " order by " : ", ")
+                    .append(column).append(order.isAscending() ? " asc" : " desc");
+            orderedById |= "id".equals(order.getProperty());
+        }
+        if (!orderedById) {
+            orderBy.append(orderBy.length() == 0 ? " order by " : ", ").append("m.member_id");
+        }
+        return orderBy.toString();
+    }
+
+    /**
+     * JDBC 로 직접 조회하므로 하이버네이트 자동 flush 가 동작하지 않는다.
+     * 쓰기 트랜잭션이면 아직 반영하지 않은 변경을 먼저 반영한다.
+     */
+    private void flushIfWritable() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
+    }
+
+    /**
+     * clearEvery 건을 내보낼 때마다 다음 행을 읽기 전에 영속성 컨텍스트를 비운다.
+     */
+    private static class ClearingSpliterator extends Spliterators.AbstractSpliterator<Member> {
+        private final Session session;
+        private final ScrollableResults results;
+        private final int clearEvery;
+        private long count;
+
+        ClearingSpliterator(Session session, ScrollableResults results, int clearEvery) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.session = session;
+            this.results = results;
+            this.clearEvery = clearEvery;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Member> action) {
+            if (count > 0 && count % clearEvery == 0) {
+                session.clear();
+            }
+            if (!results.next()) {
+                return false;
+            }
+            count++;
+            action.accept((Member) results.get(0));
+            return true;
+        }
+    }
 }
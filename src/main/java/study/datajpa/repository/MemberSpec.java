@@ -1,31 +1,57 @@
 package study.datajpa.repository;
 
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 import study.datajpa.domain.Member;
-import study.datajpa.domain.Team;
+import study.datajpa.repository.support.QuerySpec;
+import study.datajpa.repository.support.WarmupQuery;
 
-import javax.persistence.criteria.Join;
-import javax.persistence.criteria.JoinType;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * 실무 사용 지양..
+ * JpaSpecificationExecutor 로 실행하면 Criteria, MemberRepository.findAllBySpec 으로 실행하면 캐시된 JPQL 을 사용한다.
+ * 조건 값이 없으면 QuerySpec.all() (조건, 조인 없음)
  */
 public class MemberSpec {
-    public static Specification<Member> teamName(final String teamName) {
-        return (Specification<Member>) (root, query, builder) -> {
-            if(StringUtils.hasText(teamName)) {
-                return null;
-            }
+    /**
+     * 자주 쓰는 조건 모양, 시작 시점에 미리 JPQL 로 컴파일한다. (값은 JPQL 에 들어가지 않으므로 아무 값)
+     */
+    @WarmupQuery(domainType = Member.class)
+    private static final List<QuerySpec<Member>> SHAPES = List.of(
+            username("-"),
+            teamName("-"),
+            username("-").and(teamName("-")),
+            teamName("-").and(ageGoe(0)),
+            ageGoe(0).and(ageLoe(0)),
+            teamName("-").and(ageGoe(0)).and(ageLoe(0)));
 
-            Join<Member, Team> t = root.join("team", JoinType.INNER); //회원과 조인
+    public static QuerySpec<Member> teamName(final String teamName) {
+        if (!StringUtils.hasText(teamName)) {
+            return QuerySpec.all(); //팀 조건이 없으면 조인하지 않는다.
+        }
+        return QuerySpec.of(QuerySpec.alias("team") + ".name = ?", List.of("team"), List.of(teamName),
+                (root, query, builder) -> builder.equal(QuerySpec.join(root, "team").get("name"), teamName)); //회원과 조인
+    }
+
+    public static QuerySpec<Member> username(final String username) {
+        return QuerySpec.of("e.username = ?", Collections.emptyList(), Collections.singletonList(username),
+                (root, query, builder) -> builder.equal(root.get("username"), username));
+    }
 
-            return builder.equal(t.get("name"), teamName);
-        };
+    public static QuerySpec<Member> ageGoe(final Integer age) {
+        if (age == null) {
+            return QuerySpec.all();
+        }
+        return QuerySpec.of("e.age >= ?", Collections.emptyList(), List.of(age),
+                (root, query, builder) -> builder.greaterThanOrEqualTo(root.<Integer>get("age"), age));
     }
 
-    public static Specification<Member> username(final String username) {
-        return (Specification<Member>) (root, query, builder) ->
-            builder.equal(root.get("username"), username);
+    public static QuerySpec<Member> ageLoe(final Integer age) {
+        if (age == null) {
+            return QuerySpec.all();
+        }
+        return QuerySpec.of("e.age <= ?", Collections.emptyList(), List.of(age),
+                (root, query, builder) -> builder.lessThanOrEqualTo(root.<Integer>get("age"), age));
     }
 }
@@ -5,7 +5,8 @@ public interface NestedClosedProjections {
     TeamInfo getTeam();
 
     /**
-     * TeamInfo는 최적화 안됨
+     * TeamInfo는 최적화 안됨 (스프링 데이터 JPA 는 Team 엔티티 전체를 조회)
+     * MemberRepository.findProjectedByUsername 은 team.name 만 조회한다.
      */
     interface TeamInfo {
         String getName();
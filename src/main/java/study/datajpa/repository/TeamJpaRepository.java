@@ -2,6 +2,7 @@ package study.datajpa.repository;
 
 import org.springframework.stereotype.Repository;
 import study.datajpa.domain.Team;
+import study.datajpa.repository.support.WarmupQuery;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -10,6 +11,11 @@ import java.util.Optional;
 
 @Repository
 public class TeamJpaRepository {
+    @WarmupQuery
+    private static final String FIND_ALL = "select t from Team t";
+    @WarmupQuery
+    private static final String COUNT = "select count(t) from Team t";
+
     @PersistenceContext
     private EntityManager em;
 
@@ -23,7 +29,7 @@ public class TeamJpaRepository {
     }
 
     public List<Team> findAll() {
-        return em.createQuery("select t from Team t", Team.class)
+        return em.createQuery(FIND_ALL, Team.class)
                 .getResultList();
     }
 
@@ -33,7 +39,7 @@ public class TeamJpaRepository {
     }
 
     public long count() {
-        return em.createQuery("select count(t) from Team t", Long.class)
+        return em.createQuery(COUNT, Long.class)
                 .getSingleResult();
     }
 
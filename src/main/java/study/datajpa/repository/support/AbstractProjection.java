@@ -0,0 +1,50 @@
+package study.datajpa.repository.support;
+
+import java.util.Arrays;
+
+/**
+ * {@link ProjectionQuerySupport} 가 만드는 프로젝션 클래스의 부모
+ * 게터는 생성된 클래스에서 value(index) 호출로 구현된다. (JDK 프록시/리플렉션 없음)
+ */
+public abstract class AbstractProjection {
+
+    private final String[] names;
+    private final Object[] values;
+
+    public AbstractProjection(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    protected final Object value(int index) {
+        return values[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(values, ((AbstractProjection) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
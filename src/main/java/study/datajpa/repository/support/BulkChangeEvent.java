@@ -0,0 +1,17 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 엔티티 리스너를 거치지 않은 변경 (JPQL 벌크 연산, JDBC 대량 등록)
+ * <p>엔티티 콜백으로 변경을 따라가는 쪽(MemberColumnStore)은 이 이벤트를 받으면 전체를 다시 읽어야 한다.</p>
+ * 트랜잭션 안에서 발행되므로 {@code @TransactionalEventListener(fallbackExecution = true)} 로 받으면 커밋 후에 처리된다.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class BulkChangeEvent {
+    private final Class<?> domainType;
+}
@@ -0,0 +1,170 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.datajpa.domain.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 벌크 UPDATE/DELETE (JPQL)
+ * <p>@Modifying(clearAutomatically = true) 처럼 영속성 컨텍스트 전체를 비우지 않고,
+ * 벌크 연산 대상이 된 관리 중인 엔티티만 refresh(수정) 또는 detach(삭제) 한다.</p>
+ * <p>대상 행을 id 순서로 chunkSize 건씩 나눠서 실행한다. 진행 중인 트랜잭션이 없으면 청크마다 트랜잭션을 커밋해서 락을 오래 잡지 않는다.
+ * (트랜잭션 안에서 호출하면 같은 트랜잭션에 참여하므로 SQL 한 건의 크기만 제한된다.)</p>
+ * <p>2차 캐시: 하이버네이트가 JPQL 벌크 연산 대상 엔티티의 캐시 리전과 쿼리 캐시를 무효화한다.</p>
+ * <p>JPQL 의 엔티티 별칭은 항상 e 를 사용한다. 예) set e.age = e.age + 1 / where e.age >= :age</p>
+ */
+@Component
+public class BulkMutationSupport {
+
+    private static final String ALIAS = "e";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final PageCountSupport pageCountSupport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MemberUsernameIndex memberUsernameIndex;
+
+    @Autowired
+    public BulkMutationSupport(PlatformTransactionManager transactionManager, PageCountSupport pageCountSupport,
+                               ApplicationEventPublisher eventPublisher, MemberUsernameIndex memberUsernameIndex) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageCountSupport = pageCountSupport;
+        this.eventPublisher = eventPublisher;
+        this.memberUsernameIndex = memberUsernameIndex;
+    }
+
+    /**
+     * update [entity] e set [setClause] where [whereClause]
+     *
+     * @return 수정된 건수
+     */
+    public int update(Class<?> domainType, String setClause, String whereClause, Map<String, ?> params, int chunkSize) {
+        EntityType<?> entityType = em.getMetamodel().entity(domainType);
+        //@Version 이 있으면 버전도 올려서 낙관적 락과 충돌을 감지할 수 있게 한다.
+        String versioned = entityType.hasVersionAttribute() ? "versioned " : "";
+        String dml = "update " + versioned + entityType.getName() + " " + ALIAS + " set " + setClause;
+        int count = execute(domainType, dml, whereClause, params, chunkSize, false);
+        if (Member.class.isAssignableFrom(domainType)) {
+            //엔티티 콜백 없이 username 이 바뀌었을 수 있다. (어떤 username 인지 알 수 없으므로 전체)
+            memberUsernameIndex.invalidateAll();
+        }
+        return count;
+    }
+
+    /**
+     * delete from [entity] e where [whereClause]
+     * 연관관계(FK)로 참조 중인 엔티티는 먼저 정리해야 한다.
+     *
+     * @return 삭제된 건수
+     */
+    public int delete(Class<?> domainType, String whereClause, Map<String, ?> params, int chunkSize) {
+        String entityName = em.getMetamodel().entity(domainType).getName();
+        String dml = "delete from " + entityName + " " + ALIAS;
+        return execute(domainType, dml, whereClause, params, chunkSize, true);
+    }
+
+    private int execute(Class<?> domainType, String dml, String whereClause, Map<String, ?> params,
+                        int chunkSize, boolean delete) {
+        Assert.isTrue(chunkSize > 0, "chunkSize 는 1 이상이어야 합니다.");
+        String entityName = em.getMetamodel().entity(domainType).getName();
+        String idName = em.getMetamodel().entity(domainType).getId(Long.class).getName();
+        String where = " where (" + whereClause + ")";
+
+        //1. 관리 중인 엔티티 중에서 대상이 되는 엔티티 (변경 내용은 먼저 DB에 반영)
+        List<Object> affectedManaged = affectedManagedEntities(domainType, entityName, idName, where, params);
+
+        //2. 대상 id 를 chunkSize 건씩 나눠서 실행 (id 순서로 다음 청크의 마지막 id 를 먼저 구한다.)
+        //id 값 범위로 나누면 id 가 듬성듬성할 때 빈 청크마다 DML 과 커밋이 실행된다.
+        String boundaryQuery = "select " + ALIAS + "." + idName + " from " + entityName + " " + ALIAS + where +
+                " and " + ALIAS + "." + idName + " > :chunkFrom order by " + ALIAS + "." + idName;
+        String chunkDml = dml + where + " and " + ALIAS + "." + idName + " > :chunkFrom" +
+                " and " + ALIAS + "." + idName + " <= :chunkTo";
+        int total = 0;
+        long chunkFrom = Long.MIN_VALUE;
+        while (true) {
+            long from = chunkFrom;
+            Long[] chunk = transactionTemplate.execute(status -> {
+                Query boundary = em.createQuery(boundaryQuery)
+                        .setParameter("chunkFrom", from)
+                        .setFirstResult(chunkSize - 1)
+                        .setMaxResults(1);
+                params.forEach(boundary::setParameter);
+                List<?> ids = boundary.getResultList();
+                //마지막 청크는 남은 전부
+                long to = ids.isEmpty() ? Long.MAX_VALUE : ((Number) ids.get(0)).longValue();
+                Query query = em.createQuery(chunkDml)
+                        .setParameter("chunkFrom", from)
+                        .setParameter("chunkTo", to);
+                params.forEach(query::setParameter);
+                return new Long[]{to, (long) query.executeUpdate()};
+            });
+            total += chunk[1].intValue();
+            if (chunk[0] == Long.MAX_VALUE) {
+                break;
+            }
+            chunkFrom = chunk[0];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        //3. 대상이 된 엔티티만 DB 상태와 맞춘다.
+        for (Object entity : affectedManaged) {
+            if (delete) {
+                em.detach(entity);
+            } else {
+                em.refresh(entity);
+            }
+        }
+        pageCountSupport.evict(domainType);
+        eventPublisher.publishEvent(new BulkChangeEvent(domainType));
+        return total;
+    }
+
+    private List<Object> affectedManagedEntities(Class<?> domainType, String entityName, String idName,
+                                                 String where, Map<String, ?> params) {
+        List<Object> result = new ArrayList<>();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return result; //관리 중인 엔티티 없음
+        }
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<Serializable> managedIds = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (domainType.isInstance(entry.getKey())) {
+                managedIds.add(entry.getValue().getId());
+            }
+        }
+        if (managedIds.isEmpty()) {
+            return result;
+        }
+
+        em.flush();
+        Query query = em.createQuery("select " + ALIAS + " from " + entityName + " " + ALIAS + where +
+                " and " + ALIAS + "." + idName + " in :managedIds")
+                .setParameter("managedIds", managedIds);
+        params.forEach(query::setParameter);
+        for (Object entity : query.getResultList()) {
+            result.add(entity);
+        }
+        return result;
+    }
+}
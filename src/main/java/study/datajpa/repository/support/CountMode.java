@@ -0,0 +1,26 @@
+package study.datajpa.repository.support;
+
+/**
+ * Page 결과의 전체 개수(totalElements)를 구하는 방법
+ */
+public enum CountMode {
+    /**
+     * 매번 count 쿼리 실행 (스프링 데이터 JPA 기본 동작)
+     */
+    EXACT,
+    /**
+     * count 쿼리 없이 size + 1 건을 조회해서 다음 페이지 존재 여부만 판단한다. (Slice 방식)
+     * totalElements 는 "최소한 이만큼은 있다"는 하한값이다.
+     */
+    HAS_NEXT,
+    /**
+     * DB 테이블 통계의 추정 row 수를 사용한다.
+     * where 조건이 반영되지 않으므로 조건 없는 전체 목록에만 사용한다.
+     */
+    ESTIMATED,
+    /**
+     * 정확한 count 결과를 쿼리 + 파라미터 단위로 짧게(TTL) 캐시한다.
+     * 리포지토리를 통한 쓰기가 일어나면 해당 엔티티의 캐시는 비워진다.
+     */
+    CACHED
+}
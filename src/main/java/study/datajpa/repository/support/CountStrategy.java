@@ -0,0 +1,24 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 리포지토리 메서드별 count 전략 지정
+ * <p>{@link PageCountSupport} 로 구현한 페이징 메서드에 적용된다.</p>
+ * <p>스프링 데이터 JPA 가 직접 만드는 쿼리 메서드(findByAge 등)는 count 실행 시점을 바꿀 수 없으므로 영향을 받지 않는다.</p>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CountStrategy {
+    CountMode value() default CountMode.EXACT;
+
+    /**
+     * {@link CountMode#CACHED} 캐시 유지 시간(초)
+     */
+    long ttlSeconds() default 30;
+}
@@ -0,0 +1,33 @@
+package study.datajpa.repository.support;
+
+/**
+ * 현재 스레드에서 실행 중인 리포지토리 메서드의 {@link CountStrategy}
+ * <p>{@link CountStrategyInterceptor} 가 메서드 호출 동안만 바인딩한다.</p>
+ */
+public abstract class CountStrategyContext {
+    private static final ThreadLocal<CountStrategy> current = new ThreadLocal<>();
+
+    private CountStrategyContext() {
+    }
+
+    /**
+     * @return 바인딩된 전략, 없으면 null (EXACT 로 동작)
+     */
+    public static CountStrategy current() {
+        return current.get();
+    }
+
+    static CountStrategy bind(CountStrategy strategy) {
+        CountStrategy previous = current.get();
+        current.set(strategy);
+        return previous;
+    }
+
+    static void restore(CountStrategy previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.lang.reflect.Method;
+
+/**
+ * 리포지토리 프록시에 추가되는 인터셉터
+ * <p>1. {@link CountStrategy} 가 붙은 메서드 실행 동안 전략을 {@link CountStrategyContext} 에 바인딩</p>
+ * <p>2. save/delete/@Modifying 메서드가 성공하면 해당 엔티티의 count 캐시를 비운다.</p>
+ * <p>3. @Modifying 메서드는 엔티티 리스너를 거치지 않으므로 {@link BulkChangeEvent} 를 발행한다.</p>
+ */
+@RequiredArgsConstructor
+public class CountStrategyInterceptor implements MethodInterceptor {
+
+    private final PageCountSupport pageCountSupport;
+    private final Class<?> domainType;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        CountStrategy strategy = AnnotatedElementUtils.findMergedAnnotation(method, CountStrategy.class);
+
+        Object result;
+        if (strategy == null) {
+            result = invocation.proceed();
+        } else {
+            CountStrategy previous = CountStrategyContext.bind(strategy);
+            try {
+                result = invocation.proceed();
+            } finally {
+                CountStrategyContext.restore(previous);
+            }
+        }
+
+        if (isWrite(method)) {
+            pageCountSupport.evict(domainType);
+        }
+        if (AnnotatedElementUtils.hasAnnotation(method, Modifying.class)) {
+            eventPublisher.publishEvent(new BulkChangeEvent(domainType));
+        }
+        return result;
+    }
+
+    private boolean isWrite(Method method) {
+        String name = method.getName();
+        return name.startsWith("save") || name.startsWith("delete")
+                || AnnotatedElementUtils.hasAnnotation(method, Modifying.class);
+    }
+}
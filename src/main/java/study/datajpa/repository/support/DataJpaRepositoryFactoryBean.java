@@ -0,0 +1,81 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+import study.datajpa.domain.Member;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 모든 스프링 데이터 리포지토리 프록시에 인터셉터를 추가한다.
+ * <p>1. {@link RepositoryMetrics} 메서드별 지연 시간, SQL 수, 조회 행/엔티티 수</p>
+ * <p>2. {@link CountStrategyInterceptor} count 전략 바인딩, 쓰기 시 count 캐시 무효화, 벌크 연산 이벤트</p>
+ * <p>3. {@link UsernameLookupInterceptor} Member 리포지토리의 username 조회에 {@link MemberUsernameIndex} 적용</p>
+ * <p>1, 3 은 datajpa.metrics.enabled, datajpa.username-index.enabled 로 끌 수 있다. (벤치마크)</p>
+ * {@code @EnableJpaRepositories(repositoryFactoryBeanClass = ...)} 로 등록
+ */
+public class DataJpaRepositoryFactoryBean<T extends Repository<S, ID>, S, ID>
+        extends JpaRepositoryFactoryBean<T, S, ID> {
+
+    private PageCountSupport pageCountSupport;
+    private RepositoryMetrics repositoryMetrics;
+    private MemberUsernameIndex memberUsernameIndex;
+    private ApplicationEventPublisher eventPublisher;
+    private boolean metricsEnabled = true;
+    private boolean usernameIndexEnabled = true;
+
+    public DataJpaRepositoryFactoryBean(Class<? extends T> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Autowired
+    public void setPageCountSupport(PageCountSupport pageCountSupport) {
+        this.pageCountSupport = pageCountSupport;
+    }
+
+    @Autowired
+    public void setRepositoryMetrics(RepositoryMetrics repositoryMetrics) {
+        this.repositoryMetrics = repositoryMetrics;
+    }
+
+    @Autowired
+    public void setMemberUsernameIndex(MemberUsernameIndex memberUsernameIndex) {
+        this.memberUsernameIndex = memberUsernameIndex;
+    }
+
+    @Autowired
+    public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Value("${datajpa.metrics.enabled:true}")
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    @Value("${datajpa.username-index.enabled:true}")
+    public void setUsernameIndexEnabled(boolean usernameIndexEnabled) {
+        this.usernameIndexEnabled = usernameIndexEnabled;
+    }
+
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+        RepositoryFactorySupport factory = super.createRepositoryFactory(entityManager);
+        factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> {
+            if (metricsEnabled) {
+                proxyFactory.addAdvice(repositoryMetrics.interceptor(information.getRepositoryInterface()));
+            }
+            proxyFactory.addAdvice(new CountStrategyInterceptor(pageCountSupport,
+                    information.getDomainType(), eventPublisher));
+            if (usernameIndexEnabled && Member.class.equals(information.getDomainType())) {
+                proxyFactory.addAdvice(new UsernameLookupInterceptor(memberUsernameIndex, entityManager));
+            }
+        });
+        return factory;
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 현재 스레드에서 DB 또는 2차 캐시로부터 로딩(hydrate)된 엔티티 수
+ * <p>리스너 등록은 컨텍스트 초기화가 끝난 후에 한다.
+ * 빈 생성 중에 SessionFactory 를 꺼내면 백그라운드 JPA 부트스트랩(bootstrap-mode: deferred)이 끝날 때까지 기다리게 된다.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityLoadCounter implements PostLoadEventListener {
+
+    private static final ThreadLocal<long[]> count = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final transient EntityManagerFactory emf;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void register() {
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        count.get()[0]++;
+    }
+
+    public long getCount() {
+        return count.get()[0];
+    }
+}
@@ -0,0 +1,160 @@
+package study.datajpa.repository.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * username -> Member id 목록 인덱스
+ * <p>Caffeine(W-TinyLFU) 로 크기를 제한하고, 엔티티는 id 로 다시 조회하므로 영속성 컨텍스트/2차 캐시를 그대로 탄다.</p>
+ * <p>Member 가 저장/수정/삭제되면 {@link MemberUsernameIndexListener} 가 해당 username 을 지운다.
+ * username 이 바뀐 경우 이전 username 의 항목은 조회 시점에 검증해서 버린다.</p>
+ * <p>조회 시점 검증은 삭제/변경된 id 만 찾아낸다. 새로 추가된 회원이 빠진 목록을 채우지 않도록,
+ * 쿼리 전에 {@link #generation(String)} 을 받아 두고 그 사이 무효화가 있었으면 {@link #put} 을 버린다.
+ * (쿼리 후, 쓰기 트랜잭션의 커밋 후 무효화가 먼저 실행되고 늦게 채우는 경우)</p>
+ * 적중률은 /actuator/metrics/cache.gets (cache=member.username-index), /admin/cache-stats 에서 확인
+ */
+@Component
+public class MemberUsernameIndex {
+
+    public static final String NAME = "member.username-index";
+
+    /**
+     * username 해시별 무효화 횟수 (username 마다 두지 않고 고정 크기로 나눈다. 같은 칸의 다른 username 은 채우기를 한 번 더 건너뛸 뿐이다.)
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<String, List<Long>> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public MemberUsernameIndex(MeterRegistry registry,
+                               @Value("${datajpa.username-index.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    /**
+     * @return 캐시된 id 목록, 없으면 null (빈 목록은 해당 username 의 회원이 없다는 뜻)
+     */
+    public List<Long> get(String username) {
+        return cache.getIfPresent(username);
+    }
+
+    /**
+     * 쿼리 실행 전에 받아서 {@link #put} 에 넘긴다.
+     */
+    public long generation(String username) {
+        return generations.get(stripe(username));
+    }
+
+    /**
+     * @param generation 쿼리 전에 받은 {@link #generation(String)}, 그 사이 무효화가 있었으면 채우지 않는다.
+     */
+    public void put(String username, List<Long> ids, long generation) {
+        if (generation(username) != generation) {
+            return;
+        }
+        cache.put(username, List.copyOf(ids));
+        //확인과 put 사이에 무효화가 끼어들었으면 방금 넣은 항목을 지운다.
+        if (generation(username) != generation) {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * 바로 지우고, 트랜잭션 안이면 완료(커밋/롤백) 후에 한 번 더 지운다.
+     * 커밋 전에 다른 트랜잭션이 이전 상태로 다시 채운 항목을 정리하기 위함
+     */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        invalidateNow(username);
+        PendingInvalidation pending = pendingInvalidation();
+        if (pending != null) {
+            pending.usernames.add(username);
+        }
+    }
+
+    /**
+     * 모든 항목을 지운다. (username 을 바꾸는 벌크 연산) 트랜잭션 안이면 완료 후에 한 번 더 지운다.
+     */
+    public void invalidateAll() {
+        invalidateAllNow();
+        PendingInvalidation pending = pendingInvalidation();
+        if (pending != null) {
+            pending.all = true;
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 트랜잭션마다 하나만 등록한다. (회원 수만큼 동기화를 등록하지 않도록, BulkIngestService)
+     *
+     * @return 트랜잭션 밖이면 null
+     */
+    private PendingInvalidation pendingInvalidation() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingInvalidation pending = (PendingInvalidation) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingInvalidation();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    //세대를 먼저 올려야 진행 중인 put 이 이 무효화를 알아챈다.
+    private void invalidateNow(String username) {
+        generations.incrementAndGet(stripe(username));
+        cache.invalidate(username);
+    }
+
+    private void invalidateAllNow() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    private static int stripe(String username) {
+        return (username.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    /**
+     * 트랜잭션 하나에서 무효화한 username, 완료 후에 한 번 더 지운다.
+     */
+    private class PendingInvalidation implements TransactionSynchronization {
+        private final Set<String> usernames = new HashSet<>();
+        private boolean all;
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberUsernameIndex.this);
+            if (all) {
+                invalidateAllNow();
+            } else {
+                usernames.forEach(MemberUsernameIndex.this::invalidateNow);
+            }
+        }
+    }
+}
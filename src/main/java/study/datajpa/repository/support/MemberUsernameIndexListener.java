@@ -0,0 +1,27 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.domain.Member;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Member 엔티티 리스너, 변경된 username 을 {@link MemberUsernameIndex} 에서 지운다.
+ * 스프링 부트가 하이버네이트에 SpringBeanContainer 를 등록하므로 생성자 주입을 받을 수 있다.
+ * JPQL 벌크 연산은 콜백이 호출되지 않는다. 삭제는 조회 시점 검증으로 충분하고,
+ * 수정(username 이 바뀔 수 있음)은 {@link BulkMutationSupport#update} 가 인덱스 전체를 지운다.
+ */
+@RequiredArgsConstructor
+public class MemberUsernameIndexListener {
+
+    private final MemberUsernameIndex index;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Member member) {
+        index.invalidate(member.getUsername());
+    }
+}
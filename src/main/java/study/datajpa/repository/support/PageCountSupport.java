@@ -0,0 +1,199 @@
+package study.datajpa.repository.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.EqualsAndHashCode;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * count 전략을 적용한 JPQL 페이징
+ * <p>전략은 호출한 리포지토리 메서드의 {@link CountStrategy} 를 따르고, 없으면 EXACT 로 동작한다.</p>
+ */
+@Component
+public class PageCountSupport {
+
+    /**
+     * 엔티티별 최대 캐시 건수 (넘으면 Caffeine 이 덜 쓰인 항목부터 버린다.)
+     */
+    private static final int MAX_CACHED_COUNTS = 10_000;
+
+    /**
+     * H2 의 테이블 통계 추정치 (PostgreSQL 이라면 pg_class.reltuples 를 사용)
+     */
+    private static final String ESTIMATE_SQL = "select row_count_estimate from information_schema.tables" +
+            " where table_schema = current_schema and upper(table_name) = upper(:tableName)";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * 엔티티별 count 캐시, 비울 때는 엔티티의 캐시를 통째로 버린다. (전체 항목을 훑지 않는다.)
+     */
+    private final Map<Class<?>, Cache<CountKey, CachedCount>> counts = new ConcurrentHashMap<>();
+
+    /**
+     * @param jpql      정렬(order by)을 제외한 content 쿼리, 정렬은 pageable 의 Sort 를 적용한다.
+     * @param countJpql count 쿼리, CACHED 모드에서는 캐시 키로도 사용
+     */
+    public <T> Page<T> page(Class<?> domainType, String jpql, String countJpql, Map<String, ?> params,
+                            Class<T> resultType, Pageable pageable) {
+        CountStrategy strategy = CountStrategyContext.current();
+        CountMode mode = strategy == null ? CountMode.EXACT : strategy.value();
+
+        String sortedJpql = QueryUtils.applySorting(jpql, pageable.getSort());
+        TypedQuery<T> query = em.createQuery(sortedJpql, resultType);
+        params.forEach(query::setParameter);
+
+        if (pageable.isUnpaged()) {
+            List<T> content = query.getResultList();
+            return new PageImpl<>(content, pageable, content.size());
+        }
+
+        query.setFirstResult((int) pageable.getOffset());
+        if (mode == CountMode.HAS_NEXT) {
+            return hasNextPage(query, pageable);
+        }
+
+        List<T> content = query.setMaxResults(pageable.getPageSize()).getResultList();
+        switch (mode) {
+            case ESTIMATED:
+                return PageableExecutionUtils.getPage(content, pageable,
+                        () -> Math.max(estimate(domainType, countJpql, params), pageable.getOffset() + content.size()));
+            case CACHED:
+                return PageableExecutionUtils.getPage(content, pageable,
+                        () -> cachedCount(domainType, countJpql, params, strategy.ttlSeconds()));
+            default:
+                return PageableExecutionUtils.getPage(content, pageable, () -> count(countJpql, params));
+        }
+    }
+
+    /**
+     * 해당 엔티티와 관련된 count 캐시를 모두 비운다.
+     * <p>트랜잭션 안이면 끝난 뒤(커밋/롤백)에 한 번 더 비운다.
+     * 커밋 전에 다른 트랜잭션이 이전 count 로 캐시를 다시 채울 수 있기 때문이다.
+     * 완료 후 비우기는 트랜잭션마다 하나만 등록한다. (저장할 때마다 등록하지 않도록)</p>
+     */
+    public void evict(Class<?> domainType) {
+        evictNow(domainType);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PendingEvictions pending = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvictions();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.domainTypes.add(domainType);
+    }
+
+    private void evictNow(Class<?> domainType) {
+        counts.remove(domainType);
+    }
+
+    private <T> Page<T> hasNextPage(TypedQuery<T> query, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<T> result = query.setMaxResults(size + 1).getResultList();
+        boolean hasNext = result.size() > size;
+        List<T> content = hasNext ? result.subList(0, size) : result;
+
+        //다음 페이지가 있으면 하나 더 있다고만 알려준다. (hasNext() 가 올바르게 동작하는 최소값)
+        long total = pageable.getOffset() + content.size() + (hasNext ? 1 : 0);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private long cachedCount(Class<?> domainType, String countJpql, Map<String, ?> params, long ttlSeconds) {
+        CountKey key = new CountKey(countJpql, new HashMap<>(params));
+        long now = System.nanoTime();
+        //비우는 중에 꺼낸 캐시에 넣은 값은 버려진 캐시에 들어가므로 이전 count 가 남지 않는다.
+        Cache<CountKey, CachedCount> cache = counts.computeIfAbsent(domainType,
+                type -> Caffeine.newBuilder().maximumSize(MAX_CACHED_COUNTS).build());
+
+        CachedCount cached = cache.getIfPresent(key);
+        if (cached != null && cached.expiresAt - now > 0) {
+            return cached.value;
+        }
+
+        long value = count(countJpql, params);
+        cache.put(key, new CachedCount(value, now + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return value;
+    }
+
+    private long estimate(Class<?> domainType, String countJpql, Map<String, ?> params) {
+        String tableName = ((AbstractEntityPersister) em.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(domainType))
+                .getTableName();
+
+        List<?> result = em.createNativeQuery(ESTIMATE_SQL)
+                .setParameter("tableName", tableName)
+                .getResultList();
+        if (result.isEmpty() || result.get(0) == null) {
+            //통계를 읽을 수 없으면 정확한 count 로 대체
+            return count(countJpql, params);
+        }
+        return ((Number) result.get(0)).longValue();
+    }
+
+    private long count(String countJpql, Map<String, ?> params) {
+        Query query = em.createQuery(countJpql, Long.class);
+        params.forEach(query::setParameter);
+        return (Long) query.getSingleResult();
+    }
+
+    /**
+     * 트랜잭션 하나에서 비운 엔티티, 완료 후에 한 번 더 비운다.
+     */
+    private class PendingEvictions implements TransactionSynchronization {
+        private final Set<Class<?>> domainTypes = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PageCountSupport.this);
+            domainTypes.forEach(PageCountSupport.this::evictNow);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class CountKey {
+        private final String countJpql;
+        private final Map<String, ?> params;
+
+        CountKey(String countJpql, Map<String, ?> params) {
+            this.countJpql = countJpql;
+            this.params = params;
+        }
+    }
+
+    private static class CachedCount {
+        private final long value;
+        private final long expiresAt;
+
+        CachedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * id 범위 병렬 조회 (관리자 리포트처럼 전체를 읽는 조회용)
+ * <p>min(id) ~ max(id) 를 chunkSize 로 나누고, 청크마다 별도의 읽기 전용 트랜잭션(별도 커넥션)에서 조회한다.</p>
+ * <p>동시에 실행되는 청크 수는 호출마다 parallelism 으로 제한하고,
+ * 애플리케이션 전체로는 전용 스레드 수(datajpa.scan.max-parallelism)로 제한한다.
+ * 이 값은 커넥션 풀 크기보다 작게 설정해서 병렬 조회 중에도 다른 요청이 커넥션을 얻을 수 있게 한다.</p>
+ * <p>id 가 듬성듬성하면 청크마다 건수가 고르지 않을 수 있다.</p>
+ * <p>JPQL 의 엔티티 별칭은 항상 e 를 사용한다. 예) select new ...Dto(e.id, e.username, t.name) from Member e left join e.team t</p>
+ */
+@Slf4j
+@Component
+public class ParallelScanSupport {
+
+    private static final String ALIAS = "e";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final int maxParallelism;
+
+    public ParallelScanSupport(PlatformTransactionManager transactionManager,
+                               @Value("${datajpa.scan.max-parallelism:4}") int maxParallelism) {
+        Assert.isTrue(maxParallelism > 0, "datajpa.scan.max-parallelism 은 1 이상이어야 합니다.");
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        //호출한 스레드의 트랜잭션과 상관없이 청크마다 새 트랜잭션
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxParallelism = maxParallelism;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "parallel-scan-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param select      where 절을 제외한 조회 JPQL (별칭 e)
+     * @param whereClause 추가 조건, 없으면 null
+     * @param ordered     true 면 id 순서대로, false 면 먼저 끝난 청크부터 합친다.
+     */
+    public <R> List<R> scan(Class<?> domainType, String select, String whereClause, Map<String, ?> params,
+                            Class<R> resultType, int chunkSize, int parallelism, boolean ordered) {
+        List<R> result = new ArrayList<>();
+        forEachChunk(domainType, select, whereClause, params, resultType, chunkSize, parallelism, ordered, result::addAll);
+        return result;
+    }
+
+    /**
+     * 청크 결과를 호출한 스레드에서 차례로 consumer 에 넘긴다. (전체 결과를 모으지 않는다.)
+     * 메모리에는 최대 parallelism 개 청크만 올라간다.
+     */
+    public <R> void forEachChunk(Class<?> domainType, String select, String whereClause, Map<String, ?> params,
+                                 Class<R> resultType, int chunkSize, int parallelism, boolean ordered,
+                                 Consumer<List<R>> consumer) {
+        Assert.isTrue(chunkSize > 0, "chunkSize 는 1 이상이어야 합니다.");
+        Assert.isTrue(parallelism > 0, "parallelism 은 1 이상이어야 합니다.");
+        int window = Math.min(parallelism, maxParallelism);
+
+        String entityName = em.getMetamodel().entity(domainType).getName();
+        String idName = em.getMetamodel().entity(domainType).getId(Long.class).getName();
+        String id = ALIAS + "." + idName;
+        String where = StringUtils.hasText(whereClause) ? " where (" + whereClause + ")" : " where 1 = 1";
+
+        Object[] range = transactionTemplate.execute(status -> {
+            Query query = em.createQuery("select min(" + id + "), max(" + id + ") from " + entityName + " " + ALIAS + where);
+            params.forEach(query::setParameter);
+            return (Object[]) query.getSingleResult();
+        });
+        if (range == null || range[0] == null) {
+            return;
+        }
+        long min = ((Number) range[0]).longValue();
+        long max = ((Number) range[1]).longValue();
+        String chunkJpql = select + where + " and " + id + " between :scanFrom and :scanTo order by " + id;
+
+        //ordered 는 제출 순서대로 꺼내므로 완료 큐를 쓰지 않는다. (꺼내지 않은 완료 결과가 큐에 쌓이지 않도록)
+        CompletionService<List<R>> completionService = ordered ? null : new ExecutorCompletionService<>(executor);
+        Deque<Future<List<R>>> running = new ArrayDeque<>();
+        long next = min;
+        try {
+            while (next <= max || !running.isEmpty()) {
+                //1. 동시 실행 수(window)까지 청크 제출
+                while (next <= max && running.size() < window) {
+                    long from = next;
+                    long to = Math.min(max, from + chunkSize - 1);
+                    Callable<List<R>> task = () -> fetch(chunkJpql, params, resultType, from, to);
+                    running.addLast(ordered ? executor.submit(task) : completionService.submit(task));
+                    next = to + 1;
+                }
+                //2. ordered 면 가장 앞 청크, 아니면 먼저 끝난 청크
+                Future<List<R>> done;
+                if (ordered) {
+                    done = running.pollFirst();
+                } else {
+                    done = completionService.take();
+                    running.remove(done);
+                }
+                consumer.accept(done.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("병렬 조회가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        } finally {
+            running.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <R> List<R> fetch(String jpql, Map<String, ?> params, Class<R> resultType, long from, long to) {
+        return transactionTemplate.execute(status -> {
+            TypedQuery<R> query = em.createQuery(jpql, resultType)
+                    .setParameter("scanFrom", from)
+                    .setParameter("scanTo", to);
+            params.forEach(query::setParameter);
+            return query.getResultList();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,316 @@
+package study.datajpa.repository.support;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 인터페이스 프로젝션을 필요한 컬럼만 읽는 JPQL 로 컴파일한다.
+ * <p>스프링 데이터 JPA 는 중첩 프로젝션(NestedClosedProjections.TeamInfo)이나 SpEL(@Value) 이 있으면 엔티티 전체를 조회한다.
+ * 여기서는 게터를 따라가면서 select 절을 만들고, 연관관계는 left join 으로 필요한 컬럼만 읽는다.</p>
+ * <ul>
+ *     <li>게터 이름 = 엔티티 속성 이름 (getTeam() -> team)</li>
+ *     <li>반환 타입이 인터페이스면 중첩 프로젝션 (다대일/일대일 연관관계만, 연관 엔티티가 없으면 null)</li>
+ *     <li>@Value("#{target.username + ' ' + target.age}") 처럼 target.속성 경로만 사용하는 SpEL
+ *     (참조한 속성만 조회해서 계산한다.)</li>
+ * </ul>
+ * 결과 객체는 JDK 프록시 대신 생성한 클래스({@link AbstractProjection} 상속)로 만든다.
+ * 컴파일 결과는 (엔티티, 프로젝션) 별로 캐시한다. JPQL 의 엔티티 별칭은 e 이다.
+ */
+@Component
+public class ProjectionQuerySupport {
+
+    private static final String ALIAS = "e";
+    //target.a.b (메서드 호출 target.a.toUpperCase() 의 toUpperCase 는 경로에서 제외)
+    private static final Pattern TARGET_PATH = Pattern.compile("\\btarget((?:\\.[a-zA-Z_]\\w*(?![\\w(]))+)|\\btarget\\b");
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    //Map 속성 접근과 인스턴스 메서드 호출만 허용 (타입 참조, 빈 참조 X)
+    private static final EvaluationContext EVALUATION_CONTEXT = SimpleEvaluationContext
+            .forPropertyAccessors(new MapAccessor())
+            .withInstanceMethods()
+            .build();
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final Map<List<Class<?>>, Plan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * select ... from [entity] e [left join ...] where [whereClause]
+     *
+     * @param whereClause 조건, 없으면 null
+     */
+    public <P> List<P> findAll(Class<?> domainType, Class<P> projectionType, String whereClause, Map<String, ?> params) {
+        Plan plan = plan(domainType, projectionType);
+        String jpql = StringUtils.hasText(whereClause) ? plan.jpql + " where " + whereClause : plan.jpql;
+        Query query = em.createQuery(jpql);
+        params.forEach(query::setParameter);
+
+        List<?> rows = query.getResultList();
+        List<P> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = row instanceof Object[] ? (Object[]) row : new Object[]{row};
+            result.add(projectionType.cast(plan.root.create(columns)));
+        }
+        return result;
+    }
+
+    /**
+     * 컴파일된 JPQL (where 절 제외)
+     */
+    public String jpql(Class<?> domainType, Class<?> projectionType) {
+        return plan(domainType, projectionType).jpql;
+    }
+
+    private Plan plan(Class<?> domainType, Class<?> projectionType) {
+        return plans.computeIfAbsent(List.of(domainType, projectionType),
+                key -> new Compiler(em.getMetamodel().entity(domainType)).compile(projectionType));
+    }
+
+    /**
+     * 컴파일된 프로젝션
+     */
+    private static class Plan {
+        private final String jpql;
+        private final Node root;
+
+        Plan(String jpql, Node root) {
+            this.jpql = jpql;
+            this.root = root;
+        }
+    }
+
+    /**
+     * 프로젝션 인터페이스 하나 (루트 또는 중첩)
+     */
+    private static class Node {
+        private final String[] names;
+        private final Property[] properties;
+        private final MethodHandle constructor;
+        private final int idColumn; //중첩 프로젝션의 연관 엔티티 id 컬럼, 루트는 -1
+
+        Node(String[] names, Property[] properties, MethodHandle constructor, int idColumn) {
+            this.names = names;
+            this.properties = properties;
+            this.constructor = constructor;
+            this.idColumn = idColumn;
+        }
+
+        Object create(Object[] columns) {
+            if (idColumn >= 0 && columns[idColumn] == null) {
+                return null; //left join 대상 없음
+            }
+            Object[] values = new Object[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                values[i] = properties[i].value(columns);
+            }
+            try {
+                return constructor.invoke(names, values);
+            } catch (Throwable e) {
+                throw new IllegalStateException("프로젝션 생성 실패", e);
+            }
+        }
+    }
+
+    private interface Property {
+        Object value(Object[] columns);
+    }
+
+    /**
+     * 게터를 따라가면서 select 컬럼, join, 프로젝션 클래스를 만든다.
+     */
+    private static class Compiler {
+        private final EntityType<?> entityType;
+        private final List<String> columns = new ArrayList<>();
+        private final Map<String, Integer> columnIndex = new HashMap<>();
+        private final Map<String, String> joins = new LinkedHashMap<>(); //연관관계 경로 -> 별칭
+
+        Compiler(EntityType<?> entityType) {
+            this.entityType = entityType;
+        }
+
+        Plan compile(Class<?> projectionType) {
+            Node root = node(projectionType, entityType, "", -1);
+            StringBuilder jpql = new StringBuilder("select ")
+                    .append(String.join(", ", columns))
+                    .append(" from ").append(entityType.getName()).append(' ').append(ALIAS);
+            joins.forEach((path, alias) -> jpql.append(" left join ").append(path).append(' ').append(alias));
+            return new Plan(jpql.toString(), root);
+        }
+
+        private Node node(Class<?> type, ManagedType<?> managedType, String path, int idColumn) {
+            //생성한 클래스는 별도 클래스 로더에 올라가므로 public 인터페이스만 구현할 수 있다.
+            Assert.isTrue(type.isInterface() && Modifier.isPublic(type.getModifiers()),
+                    "public 인터페이스 프로젝션만 지원합니다: " + type.getName());
+            List<Method> getters = getters(type);
+            String[] names = new String[getters.size()];
+            Property[] properties = new Property[getters.size()];
+            for (int i = 0; i < getters.size(); i++) {
+                Method getter = getters.get(i);
+                names[i] = propertyName(getter);
+                properties[i] = property(getter, names[i], managedType, path);
+            }
+            return new Node(names, properties, generate(type, getters), idColumn);
+        }
+
+        private Property property(Method getter, String name, ManagedType<?> managedType, String path) {
+            Value value = getter.getAnnotation(Value.class);
+            if (value != null) {
+                return expression(value.value(), path);
+            }
+            Attribute<?, ?> attribute = managedType.getAttribute(name);
+            if (getter.getReturnType().isInterface() && attribute.isAssociation()) {
+                //중첩 프로젝션: 연관 엔티티를 left join 하고 id 로 존재 여부 판단
+                Assert.isTrue(!attribute.isCollection(), "컬렉션 연관관계는 지원하지 않습니다: " + name);
+                EntityType<?> target = (EntityType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+                String nestedPath = path + name;
+                int idColumn = column(nestedPath + "." + target.getId(target.getIdType().getJavaType()).getName());
+                Node nested = node(getter.getReturnType(), target, nestedPath + ".", idColumn);
+                return nested::create;
+            }
+            int index = column(path + name);
+            return columns -> columns[index];
+        }
+
+        /**
+         * target.a.b 경로를 컬럼으로 조회하고, 계산은 조회한 값으로 만든 Map 에 대해서 한다.
+         */
+        private Property expression(String template, String path) {
+            Expression expression = PARSER.parseExpression(template, new TemplateParserContext());
+            Map<String, Integer> references = new LinkedHashMap<>();
+            Matcher matcher = TARGET_PATH.matcher(template);
+            while (matcher.find()) {
+                Assert.notNull(matcher.group(1), "SpEL 은 target.속성 경로만 지원합니다: " + template);
+                String reference = matcher.group(1).substring(1);
+                references.put(reference, column(path + reference));
+            }
+
+            return columns -> {
+                Map<String, Object> target = new HashMap<>();
+                references.forEach((reference, index) -> put(target, reference.split("\\."), columns[index]));
+                return expression.getValue(EVALUATION_CONTEXT, Map.of("target", target));
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void put(Map<String, Object> map, String[] path, Object value) {
+            for (int i = 0; i < path.length - 1; i++) {
+                map = (Map<String, Object>) map.computeIfAbsent(path[i], key -> new HashMap<>());
+            }
+            map.put(path[path.length - 1], value);
+        }
+
+        /**
+         * @param path 속성 경로 (team.name), 연관관계는 join 별칭으로 바꾼다. (j1.name)
+         * @return select 절에서의 위치
+         */
+        private int column(String path) {
+            String[] segments = path.split("\\.");
+            String owner = ALIAS;
+            ManagedType<?> managedType = entityType;
+            StringBuilder joinPath = new StringBuilder();
+            for (int i = 0; i < segments.length - 1; i++) {
+                Attribute<?, ?> attribute = managedType.getAttribute(segments[i]);
+                if (!attribute.isAssociation()) {
+                    break; //임베디드 값 타입은 경로 그대로 사용
+                }
+                joinPath.append(joinPath.length() == 0 ? "" : ".").append(segments[i]);
+                String associationPath = owner + "." + segments[i];
+                owner = joins.computeIfAbsent(associationPath, key -> "j" + (joins.size() + 1));
+                managedType = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+            }
+            String rest = path.substring(joinPath.length() == 0 ? 0 : joinPath.length() + 1);
+            String column = owner + "." + rest;
+            return columnIndex.computeIfAbsent(column, key -> {
+                columns.add(key);
+                return columns.size() - 1;
+            });
+        }
+
+        private static List<Method> getters(Class<?> type) {
+            List<Method> getters = new ArrayList<>();
+            for (Method method : type.getMethods()) {
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                Assert.isTrue(method.getParameterCount() == 0 && method.getReturnType() != void.class
+                        && !propertyName(method).isEmpty(), "게터만 선언할 수 있습니다: " + method);
+                getters.add(method);
+            }
+            getters.sort((a, b) -> a.getName().compareTo(b.getName()));
+            return getters;
+        }
+
+        private static String propertyName(Method getter) {
+            String name = getter.getName();
+            if (name.startsWith("get") && name.length() > 3) {
+                return Introspector.decapitalize(name.substring(3));
+            }
+            if (name.startsWith("is") && name.length() > 2) {
+                return Introspector.decapitalize(name.substring(2));
+            }
+            return "";
+        }
+
+        /**
+         * 게터 i 는 value(i) 를 반환 타입으로 캐스팅해서 반환
+         */
+        private static MethodHandle generate(Class<?> type, List<Method> getters) {
+            try {
+                Method value = AbstractProjection.class.getDeclaredMethod("value", int.class);
+                DynamicType.Builder<AbstractProjection> builder = new ByteBuddy()
+                        .subclass(AbstractProjection.class, ConstructorStrategy.Default.IMITATE_SUPER_CLASS)
+                        .implement(type);
+                for (int i = 0; i < getters.size(); i++) {
+                    builder = builder.method(ElementMatchers.named(getters.get(i).getName())
+                                    .and(ElementMatchers.takesArguments(0)))
+                            .intercept(MethodCall.invoke(value).with(i)
+                                    .withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC));
+                }
+                Class<? extends AbstractProjection> generated = builder.make()
+                        .load(type.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                        .getLoaded();
+                return MethodHandles.publicLookup().findConstructor(generated,
+                        MethodType.methodType(void.class, String[].class, Object[].class));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("프로젝션 클래스 생성 실패: " + type.getName(), e);
+            }
+        }
+    }
+}
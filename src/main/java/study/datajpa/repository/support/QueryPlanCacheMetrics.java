@@ -0,0 +1,92 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.engine.query.spi.QueryPlanCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * 하이버네이트 쿼리 계획 캐시(JPQL -> SQL 변환 결과) 메트릭
+ * <ul>
+ *     <li>hibernate.query.plan.cache.requests (result=hit|miss), hibernate.query.plan.cache.hit.ratio (generate_statistics 필요)</li>
+ *     <li>hibernate.query.plan.cache.size: 캐시된 계획 수 (최대 hibernate.query.plan_cache_max_size)</li>
+ * </ul>
+ * 크기는 공개 API 가 없어서 QueryPlanCache 의 내부 캐시를 읽는다. (5.6 부터 InternalCache.heapSize(), 이전에는 Map) 읽지 못하면 -1
+ * <p>SessionFactory 는 처음 측정할 때 꺼낸다. (백그라운드 JPA 부트스트랩을 빈 생성 시점에 기다리지 않도록)</p>
+ */
+@Component
+public class QueryPlanCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory emf;
+    private final Field planMap;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    public QueryPlanCacheMetrics(EntityManagerFactory emf) {
+        this.emf = emf;
+        this.planMap = ReflectionUtils.findField(QueryPlanCache.class, "queryPlanCache");
+        if (planMap != null) {
+            ReflectionUtils.makeAccessible(planMap);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("hibernate.query.plan.cache.requests", this,
+                        metrics -> metrics.statistics().getQueryPlanCacheHitCount())
+                .tag("result", "hit")
+                .description("쿼리 계획 캐시 적중")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.plan.cache.requests", this,
+                        metrics -> metrics.statistics().getQueryPlanCacheMissCount())
+                .tag("result", "miss")
+                .description("쿼리 계획 캐시 실패 (JPQL 파싱)")
+                .register(registry);
+        Gauge.builder("hibernate.query.plan.cache.hit.ratio", this, QueryPlanCacheMetrics::hitRate)
+                .register(registry);
+        Gauge.builder("hibernate.query.plan.cache.size", this, QueryPlanCacheMetrics::size)
+                .register(registry);
+    }
+
+    public double hitRate() {
+        long hit = statistics().getQueryPlanCacheHitCount();
+        long miss = statistics().getQueryPlanCacheMissCount();
+        return hit + miss == 0 ? 0.0 : (double) hit / (hit + miss);
+    }
+
+    public long size() {
+        if (planMap == null) {
+            return -1;
+        }
+        Object plans = ReflectionUtils.getField(planMap, sessionFactory().getQueryPlanCache());
+        if (plans instanceof Map) {
+            return ((Map<?, ?>) plans).size();
+        }
+        Method heapSize = plans == null ? null : ReflectionUtils.findMethod(plans.getClass(), "heapSize");
+        if (heapSize == null) {
+            return -1;
+        }
+        ReflectionUtils.makeAccessible(heapSize);
+        return ((Number) ReflectionUtils.invokeMethod(heapSize, plans)).longValue();
+    }
+
+    private Statistics statistics() {
+        return sessionFactory().getStatistics();
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        if (sessionFactory == null) {
+            sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        }
+        return sessionFactory;
+    }
+}
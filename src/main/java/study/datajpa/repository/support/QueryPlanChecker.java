@@ -0,0 +1,170 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 시작 시점에 리포지토리에 선언된 쿼리(@Query JPQL/네이티브, count 쿼리, 네임드 쿼리)를 EXPLAIN 해서
+ * 조건(where)이 있는데 인덱스를 타지 않는(full table scan) 쿼리를 경고한다.
+ * <p>실행 계획 형식이 DB 마다 달라서 H2 에서만 동작한다. (H2 는 인덱스 없이 읽는 테이블을 /* TABLE.tableScan *&#47; 로 표시)</p>
+ * <p>메서드 이름으로 만드는 쿼리(findByAge 등)는 호출 시점에 JPQL 이 만들어지므로 대상이 아니다.</p>
+ * datajpa.explain-check.fail-on-full-scan=true 면 시작을 실패시킨다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.explain-check.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryPlanChecker {
+
+    private static final String TABLE_SCAN = ".tableScan";
+
+    private final ListableBeanFactory beanFactory;
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean failOnFullScan;
+    private final List<String> fullScans = new CopyOnWriteArrayList<>();
+
+    public QueryPlanChecker(ListableBeanFactory beanFactory, EntityManagerFactory emf, JdbcTemplate jdbcTemplate,
+                            @Value("${datajpa.explain-check.fail-on-full-scan:false}") boolean failOnFullScan) {
+        this.beanFactory = beanFactory;
+        this.emf = emf;
+        this.jdbcTemplate = jdbcTemplate;
+        this.failOnFullScan = failOnFullScan;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        String database = jdbcTemplate.execute((Connection connection) ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"H2".equalsIgnoreCase(database)) {
+            log.info("EXPLAIN 검사는 H2 에서만 동작합니다. (현재 {})", database);
+            return;
+        }
+
+        fullScans.clear();
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : information.getQueryMethods()) {
+                String location = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                for (String sql : declaredSql(method)) {
+                    check(location, sql);
+                }
+            }
+        }
+
+        if (!fullScans.isEmpty() && failOnFullScan) {
+            throw new IllegalStateException("full table scan 쿼리: " + fullScans);
+        }
+    }
+
+    /**
+     * @return full table scan 으로 판단된 쿼리 (리포지토리.메서드: SQL)
+     */
+    public List<String> getFullScans() {
+        return Collections.unmodifiableList(fullScans);
+    }
+
+    /**
+     * 파라미터는 모두 null 로 바인딩한다. (값이 아니라 계획만 필요)
+     */
+    public String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement ps = connection.prepareStatement("explain " + sql)) {
+                int parameterCount = ps.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameterCount; i++) {
+                    ps.setObject(i, null);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    /**
+     * 조건이 없는 전체 조회(select m from Member m)는 원래 전체를 읽으므로 제외한다.
+     */
+    public boolean isFullScan(String sql, String plan) {
+        return sql.toLowerCase(Locale.ROOT).contains(" where ") && plan.contains(TABLE_SCAN);
+    }
+
+    private void check(String location, String sql) {
+        try {
+            String plan = explain(sql);
+            if (isFullScan(sql, plan)) {
+                fullScans.add(location + ": " + sql);
+                log.warn("full table scan: {}\n{}", location, plan);
+            } else {
+                log.debug("query plan: {}\n{}", location, plan);
+            }
+        } catch (Exception e) {
+            log.warn("EXPLAIN 실패: {} ({})", location, e.getMessage());
+        }
+    }
+
+    private List<String> declaredSql(Method method) {
+        Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+        if (query == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> sql = new ArrayList<>();
+        if (StringUtils.hasText(query.value())) {
+            sql.addAll(toSql(query.value(), query.nativeQuery()));
+        }
+        if (StringUtils.hasText(query.countQuery())) {
+            sql.addAll(toSql(query.countQuery(), query.nativeQuery()));
+        }
+        if (StringUtils.hasText(query.name())) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                org.hibernate.query.Query<?> namedQuery = em.createNamedQuery(query.name())
+                        .unwrap(org.hibernate.query.Query.class);
+                sql.addAll(toSql(namedQuery.getQueryString(), namedQuery instanceof NativeQuery));
+            } finally {
+                em.close();
+            }
+        }
+        return sql;
+    }
+
+    private List<String> toSql(String query, boolean nativeQuery) {
+        if (nativeQuery) {
+            return List.of(query);
+        }
+        //JPQL -> SQL 변환은 하이버네이트 쿼리 계획 캐시를 사용 (실행 시점에도 같은 계획을 재사용)
+        String[] sqlStrings = emf.unwrap(SessionFactoryImplementor.class).getQueryPlanCache()
+                .getHQLQueryPlan(query, false, Collections.emptyMap())
+                .getSqlStrings();
+        return List.of(sqlStrings);
+    }
+}
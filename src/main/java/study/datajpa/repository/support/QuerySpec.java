@@ -0,0 +1,140 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JPQL 조건 조각으로도 표현되는 Specification
+ * <p>JpaSpecificationExecutor 에 그대로 넘길 수 있고(Criteria), {@link SpecificationQuerySupport} 에 넘기면
+ * 조건 조각을 이어 붙인 JPQL 을 모양(조각 + 조인)별로 한 번만 만들고 값만 바인딩해서 재사용한다.</p>
+ * <p>조각의 ? 는 값 자리, 엔티티 별칭은 e, 조인 별칭은 {@link #alias(String)} 를 사용한다.
+ * 예) "j_team.name = ?" + joins("team")</p>
+ * 조건이 없는 {@link #all()} 은 조합할 때 빠지므로 필요 없는 조인이 추가되지 않는다.
+ * <p>조인은 and 로만 조합되면 inner join, or 로 조합된 조각의 조인은 left join 으로 만든다.
+ * (username("x").or(teamName("t")) 에서 팀이 없는 회원 x 가 빠지지 않도록)</p>
+ */
+public final class QuerySpec<T> implements Specification<T> {
+
+    private static final QuerySpec<?> ALL = new QuerySpec<>(null, Collections.emptySet(), Collections.emptySet(),
+            Collections.emptyList(), null);
+
+    private final String fragment;
+    private final Set<String> joins;
+    private final Set<String> leftJoins;
+    private final List<Object> values;
+    private final Specification<T> criteria;
+
+    private QuerySpec(String fragment, Set<String> joins, Set<String> leftJoins, List<Object> values,
+                      Specification<T> criteria) {
+        this.fragment = fragment;
+        this.joins = joins;
+        this.leftJoins = leftJoins;
+        this.values = values;
+        this.criteria = criteria;
+    }
+
+    /**
+     * @param joins    조각에서 사용하는 연관관계 경로 (inner join, or 로 조합되면 left join)
+     * @param criteria 같은 조건의 Criteria 표현 (JpaSpecificationExecutor 용), 조인은 {@link #join(From, String)} 으로 만든다.
+     */
+    public static <T> QuerySpec<T> of(String fragment, List<String> joins, List<?> values, Specification<T> criteria) {
+        return new QuerySpec<>(fragment, new LinkedHashSet<>(joins), Collections.emptySet(), new ArrayList<>(values),
+                criteria);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> QuerySpec<T> all() {
+        return (QuerySpec<T>) ALL;
+    }
+
+    public static String alias(String joinPath) {
+        return "j_" + joinPath.replace('.', '_');
+    }
+
+    /**
+     * Criteria 에서 이미 만든 조인이 있으면 재사용한다. (같은 연관관계를 조건마다 다시 조인하지 않도록)
+     * <p>조건 조각은 자신이 or 로 조합될지 알 수 없으므로 Criteria 조인은 항상 left join 이다.
+     * 조인 대상 컬럼 조건(= ?)이 null 을 걸러내므로 and 조합에서도 결과는 inner join 과 같다.</p>
+     */
+    public static Join<?, ?> join(From<?, ?> from, String attribute) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute)) {
+                return join;
+            }
+        }
+        return from.join(attribute, JoinType.LEFT);
+    }
+
+    public QuerySpec<T> and(QuerySpec<T> other) {
+        return combine(other, "and");
+    }
+
+    public QuerySpec<T> or(QuerySpec<T> other) {
+        return combine(other, "or");
+    }
+
+    public boolean isAll() {
+        return fragment == null;
+    }
+
+    /**
+     * 값이 달라도 같은 모양이면 같은 키 -> 같은 JPQL
+     */
+    String key() {
+        return joins + "" + leftJoins + (fragment == null ? "" : fragment);
+    }
+
+    String fragment() {
+        return fragment;
+    }
+
+    Set<String> joins() {
+        return joins;
+    }
+
+    boolean isLeftJoin(String join) {
+        return leftJoins.contains(join);
+    }
+
+    List<Object> values() {
+        return values;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+        return criteria == null ? null : criteria.toPredicate(root, query, builder);
+    }
+
+    private QuerySpec<T> combine(QuerySpec<T> other, String operator) {
+        if (other == null || other.isAll()) {
+            return this;
+        }
+        if (isAll()) {
+            return other;
+        }
+        Set<String> joins = new LinkedHashSet<>(this.joins);
+        joins.addAll(other.joins);
+        //or 의 한쪽만 만족해도 되므로 어느 쪽의 조인도 행을 걸러내면 안 된다.
+        Set<String> leftJoins = new LinkedHashSet<>("or".equals(operator) ? joins : this.leftJoins);
+        leftJoins.addAll(other.leftJoins);
+        List<Object> values = new ArrayList<>(this.values);
+        values.addAll(other.values);
+        Specification<T> criteria = "and".equals(operator)
+                ? Specification.where(this.criteria).and(other.criteria)
+                : Specification.where(this.criteria).or(other.criteria);
+        return new QuerySpec<>("(" + fragment + ") " + operator + " (" + other.fragment + ")", joins, leftJoins,
+                values, criteria);
+    }
+}
@@ -0,0 +1,268 @@
+package study.datajpa.repository.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.query.spi.QueryPlanCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 시작 시점 쿼리 준비 (배포 직후 첫 요청마다 JPQL 파싱/SQL 변환이 몰리는 지연을 없앤다.)
+ * <p>1. JPQL 을 하이버네이트 쿼리 계획 캐시에 미리 컴파일한다.</p>
+ * <ul>
+ *     <li>스프링 데이터 리포지토리의 @Query (count 쿼리, Pageable 메서드의 자동 count 쿼리 포함)</li>
+ *     <li>엔티티의 @NamedQuery (Member.findByUsername), 미리 풀어 둔 메서드 이름 쿼리 (datajpa.named-queries-location, fast-start 프로필)</li>
+ *     <li>{@link WarmupQuery} 가 붙은 상수 (MemberJpaRepository, TeamJpaRepository, MemberRepositoryImpl 의 JPQL, MemberSpec 의 조건 모양)</li>
+ * </ul>
+ * <p>2. 변환된 SQL 과 네이티브 SQL 을 커넥션 풀의 커넥션마다 prepare 한다. (H2 는 세션별 파싱 캐시, QUERY_CACHE_SIZE)</p>
+ * <p>ApplicationReadyEvent 리스너가 모두 끝나야 스프링 부트가 ReadinessState.ACCEPTING_TRAFFIC 을 발행하므로,
+ * 여기서 동기로 실행하면 준비가 끝날 때까지 /actuator/health/readiness 가 OUT_OF_SERVICE 로 응답한다.</p>
+ * 네임드 쿼리 파일에 없는 메서드 이름 쿼리는 호출 시점에 Criteria 로 만들어지므로 대상이 아니다.
+ * 실패한 쿼리는 경고만 남기고 시작은 계속한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryWarmup {
+
+    /**
+     * 리포지토리 네임드 쿼리 파일, 지정하지 않으면 스프링 데이터 JPA 의 기본 위치
+     */
+    public static final String NAMED_QUERIES_LOCATION =
+            "${datajpa.named-queries-location:classpath*:META-INF/jpa-named-queries.properties}";
+
+    private final ListableBeanFactory beanFactory;
+    private final EntityManagerFactory emf;
+    private final DataSource dataSource;
+    private final SpecificationQuerySupport specificationQuerySupport;
+    private final int connections;
+    private final String namedQueriesLocation;
+
+    private volatile List<String> compiledJpql = Collections.emptyList();
+    private volatile int preparedStatements;
+    private volatile boolean completed;
+
+    public QueryWarmup(ListableBeanFactory beanFactory, EntityManagerFactory emf, DataSource dataSource,
+                       SpecificationQuerySupport specificationQuerySupport,
+                       @Value("${datajpa.warmup.connections:10}") int connections,
+                       @Value(NAMED_QUERIES_LOCATION) String namedQueriesLocation) {
+        this.beanFactory = beanFactory;
+        this.emf = emf;
+        this.dataSource = dataSource;
+        this.specificationQuerySupport = specificationQuerySupport;
+        this.connections = connections;
+        this.namedQueriesLocation = namedQueriesLocation;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE) //EXPLAIN 검사(QueryPlanChecker)도 컴파일된 계획을 사용하도록 먼저 실행
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmup() {
+        long start = System.nanoTime();
+        Set<String> jpql = new LinkedHashSet<>();
+        Set<String> sql = new LinkedHashSet<>();
+        collectRepositoryQueries(jpql, sql);
+        collectNamedQueries(jpql);
+        collectWarmupQueries(jpql, sql);
+
+        //1. JPQL -> SQL (쿼리 계획 캐시)
+        QueryPlanCache planCache = emf.unwrap(SessionFactoryImplementor.class).getQueryPlanCache();
+        List<String> compiled = new ArrayList<>();
+        for (String query : jpql) {
+            try {
+                sql.addAll(Arrays.asList(planCache.getHQLQueryPlan(query, false, Collections.emptyMap()).getSqlStrings()));
+                compiled.add(query);
+            } catch (RuntimeException e) {
+                log.warn("JPQL 컴파일 실패: {} ({})", query, e.getMessage());
+            }
+        }
+
+        //2. 커넥션마다 prepare
+        int prepared = prepare(sql);
+
+        compiledJpql = Collections.unmodifiableList(compiled);
+        preparedStatements = prepared;
+        completed = true;
+        log.info("query warmup: {} JPQL compiled, {} SQL prepared on {} connections, {} ms",
+                compiled.size(), sql.size(), poolSize(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return 쿼리 계획 캐시에 컴파일한 JPQL
+     */
+    public List<String> getCompiledJpql() {
+        return compiledJpql;
+    }
+
+    /**
+     * @return prepare 한 statement 수 (SQL 수 x 커넥션 수)
+     */
+    public int getPreparedStatements() {
+        return preparedStatements;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private void collectRepositoryQueries(Set<String> jpql, Set<String> sql) {
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : information.getQueryMethods()) {
+                Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                if (query == null || !StringUtils.hasText(query.value())) {
+                    continue; //네임드 쿼리는 collectNamedQueries
+                }
+                Set<String> target = query.nativeQuery() ? sql : jpql;
+                target.add(query.value());
+                if (StringUtils.hasText(query.countQuery())) {
+                    target.add(query.countQuery());
+                } else if (!query.nativeQuery() && Arrays.asList(method.getParameterTypes()).contains(Pageable.class)) {
+                    //스프링 데이터가 페이징 시 만드는 count 쿼리와 같은 문자열
+                    target.add(QueryUtils.createCountQueryFor(query.value()));
+                }
+            }
+        }
+    }
+
+    private void collectNamedQueries(Set<String> jpql) {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(namedQueriesLocation)) {
+                PropertiesLoaderUtils.loadProperties(resource).forEach((name, query) -> jpql.add((String) query));
+            }
+        } catch (IOException e) {
+            log.warn("{} 를 읽지 못했습니다. ({})", namedQueriesLocation, e.getMessage());
+        }
+        for (EntityType<?> entityType : emf.getMetamodel().getEntities()) {
+            for (NamedQuery namedQuery : AnnotatedElementUtils.findMergedRepeatableAnnotations(
+                    entityType.getJavaType(), NamedQuery.class, NamedQueries.class)) {
+                jpql.add(namedQuery.query());
+            }
+        }
+    }
+
+    /**
+     * 애플리케이션 패키지의 클래스에서 {@link WarmupQuery} 가 붙은 static 필드를 찾는다.
+     * 클래스는 초기화하지 않고 읽고, 필드 값을 읽을 때만 초기화된다.
+     */
+    private void collectWarmupQueries(Set<String> jpql, Set<String> sql) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+        for (String basePackage : AutoConfigurationPackages.get(beanFactory)) {
+            scanner.findCandidateComponents(basePackage).forEach(candidate -> {
+                Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+                ReflectionUtils.doWithLocalFields(type, field -> {
+                    WarmupQuery warmupQuery = field.getAnnotation(WarmupQuery.class);
+                    if (warmupQuery != null && Modifier.isStatic(field.getModifiers())) {
+                        collect(type, field, warmupQuery, jpql, sql);
+                    }
+                });
+            });
+        }
+    }
+
+    private void collect(Class<?> type, Field field, WarmupQuery warmupQuery, Set<String> jpql, Set<String> sql) {
+        ReflectionUtils.makeAccessible(field);
+        Object value = ReflectionUtils.getField(field, null);
+        Collection<?> values = value instanceof Collection ? (Collection<?>) value : Collections.singletonList(value);
+        for (Object query : values) {
+            if (query instanceof String) {
+                (warmupQuery.nativeQuery() ? sql : jpql).add((String) query);
+            } else if (query instanceof QuerySpec && warmupQuery.domainType() != void.class) {
+                jpql.addAll(specificationQuerySupport.warmup(warmupQuery.domainType(), (QuerySpec<?>) query));
+            } else {
+                log.warn("@WarmupQuery 를 처리할 수 없습니다: {}.{}", type.getSimpleName(), field.getName());
+            }
+        }
+    }
+
+    /**
+     * 커넥션을 동시에 빌려야 풀이 물리 커넥션을 모두 열고, 커넥션마다 prepare 된다.
+     */
+    private int prepare(Collection<String> sql) {
+        int prepared = 0;
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            for (int i = 0; i < poolSize(); i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+            for (Connection connection : borrowed) {
+                for (String statement : sql) {
+                    try (PreparedStatement ignored = connection.prepareStatement(statement)) {
+                        prepared++;
+                    } catch (SQLException e) {
+                        log.debug("prepare 실패: {} ({})", statement, e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("warmup 커넥션을 얻지 못했습니다. ({})", e.getMessage());
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close(); //풀에 반납
+                } catch (SQLException e) {
+                    log.debug("커넥션 반납 실패 ({})", e.getMessage());
+                }
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * 풀 크기보다 많이 빌리면 connectionTimeout 까지 기다리므로 풀 크기로 제한한다.
+     */
+    private int poolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return Math.min(connections, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+            }
+        } catch (SQLException e) {
+            log.debug("커넥션 풀 크기를 알 수 없습니다. ({})", e.getMessage());
+        }
+        return connections;
+    }
+}
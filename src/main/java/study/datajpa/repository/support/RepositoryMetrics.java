@@ -0,0 +1,144 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 리포지토리 메서드별 메트릭 (/actuator/metrics)
+ * <ul>
+ *     <li>repository.invocations: 지연 시간 (histogram), tag: repository, method, signature, outcome</li>
+ *     <li>repository.statements: 호출 한 번에 실행된 SQL 수</li>
+ *     <li>repository.rows: 호출 한 번에 ResultSet 에서 읽은 행 수</li>
+ *     <li>repository.entities: 호출 한 번에 로딩된 엔티티 수</li>
+ *     <li>repository.n_plus_one: SQL 수가 임계값을 넘은 호출 수 (경고 로그도 남긴다)</li>
+ * </ul>
+ * 오버로드된 메서드(findAll(), findAll(Sort) 등)는 signature 태그(파라미터 타입, 예: (String,int))로 구분한다.
+ * 리포지토리 메서드가 반환된 뒤 지연 로딩으로 실행되는 SQL 은 해당 메서드에 포함되지 않는다.
+ */
+@Slf4j
+@Component
+public class RepositoryMetrics {
+
+    private final MeterRegistry registry;
+    private final SqlStatementCounter sqlStatementCounter;
+    private final EntityLoadCounter entityLoadCounter;
+    private final int nPlusOneThreshold;
+
+    public RepositoryMetrics(MeterRegistry registry, SqlStatementCounter sqlStatementCounter,
+                             EntityLoadCounter entityLoadCounter,
+                             @Value("${datajpa.metrics.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.registry = registry;
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.entityLoadCounter = entityLoadCounter;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    public MethodInterceptor interceptor(Class<?> repositoryInterface) {
+        return new Interceptor(repositoryInterface.getSimpleName());
+    }
+
+    private class Interceptor implements MethodInterceptor {
+        private final String repository;
+        private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+        Interceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            long statements = sqlStatementCounter.getCount();
+            long rows = sqlStatementCounter.getRowCount();
+            long entities = entityLoadCounter.getCount();
+            long start = System.nanoTime();
+
+            boolean success = false;
+            try {
+                Object result = invocation.proceed();
+                success = true;
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                long executed = sqlStatementCounter.getCount() - statements;
+                Meters m = meters.computeIfAbsent(method, this::createMeters);
+                (success ? m.success : m.error).record(elapsed, TimeUnit.NANOSECONDS);
+                m.statements.record(executed);
+                m.rows.record(sqlStatementCounter.getRowCount() - rows);
+                m.entities.record(entityLoadCounter.getCount() - entities);
+
+                if (executed > nPlusOneThreshold) {
+                    m.nPlusOne.increment();
+                    log.warn("N+1 의심: {}.{} 호출 한 번에 SQL {} 건 실행 (임계값 {})",
+                            repository, method.getName(), executed, nPlusOneThreshold);
+                }
+            }
+        }
+
+        private Meters createMeters(Method method) {
+            return new Meters(registry, repository, method.getName(), signature(method));
+        }
+    }
+
+    private static String signature(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    private static class Meters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary statements;
+        private final DistributionSummary rows;
+        private final DistributionSummary entities;
+        private final Counter nPlusOne;
+
+        Meters(MeterRegistry registry, String repository, String method, String signature) {
+            this.success = timer(registry, repository, method, signature, "success");
+            this.error = timer(registry, repository, method, signature, "error");
+            this.statements = summary(registry, "repository.statements", repository, method, signature);
+            this.rows = summary(registry, "repository.rows", repository, method, signature);
+            this.entities = summary(registry, "repository.entities", repository, method, signature);
+            this.nPlusOne = Counter.builder("repository.n_plus_one")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("signature", signature)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String repository, String method, String signature,
+                                   String outcome) {
+            return Timer.builder("repository.invocations")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("signature", signature)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private static DistributionSummary summary(MeterRegistry registry, String name, String repository, String method,
+                                                   String signature) {
+            return DistributionSummary.builder(name)
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("signature", signature)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 낙관적 락 충돌 시 재시도
+ * <p>작업마다 새 트랜잭션(새 영속성 컨텍스트)에서 실행하고, 버전 충돌이 나면 backoff 후 처음부터 다시 실행한다.
+ * 그래서 작업 안에서 엔티티를 다시 조회해야 한다. (밖에서 조회한 엔티티를 넘기면 같은 충돌이 반복된다.)</p>
+ * <p>PESSIMISTIC_WRITE 처럼 조회 시점부터 락을 잡지 않으므로 읽기를 막지 않는다.</p>
+ */
+@Slf4j
+@Component
+public class RetryOnConflictExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final double multiplier;
+    private final long maxBackoffMillis;
+
+    public RetryOnConflictExecutor(PlatformTransactionManager transactionManager,
+                                   @Value("${datajpa.retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${datajpa.retry.initial-backoff-ms:10}") long initialBackoffMillis,
+                                   @Value("${datajpa.retry.multiplier:2.0}") double multiplier,
+                                   @Value("${datajpa.retry.max-backoff-ms:500}") long maxBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.multiplier = multiplier;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * @throws OptimisticLockingFailureException maxAttempts 번 모두 충돌한 경우
+     */
+    public <T> T execute(TransactionCallback<T> action) {
+        return execute(maxAttempts, action);
+    }
+
+    /**
+     * @param maxAttempts 이 호출에만 적용할 최대 시도 횟수
+     */
+    public <T> T execute(int maxAttempts, TransactionCallback<T> action) {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("낙관적 락 충돌, 재시도 {}/{}", attempt, maxAttempts);
+                sleep(backoff);
+                backoff = Math.min(maxBackoffMillis, (long) (backoff * multiplier));
+            }
+        }
+    }
+
+    private void sleep(long backoff) {
+        //동시에 충돌한 스레드들이 같은 시점에 다시 충돌하지 않도록 지터 추가
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        try {
+            Thread.sleep(jittered);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트", e);
+        }
+    }
+}
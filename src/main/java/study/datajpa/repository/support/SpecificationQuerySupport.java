@@ -0,0 +1,115 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link QuerySpec} 실행
+ * <p>JpaSpecificationExecutor 는 호출마다 Criteria 트리를 새로 만들고, 하이버네이트가 그걸 다시 JPQL 로 렌더링해서 파싱한다.
+ * 여기서는 (엔티티, 조건 모양) 별로 JPQL 을 한 번만 만들고 값은 파라미터(:p1, :p2 ...)로 바인딩한다.
+ * JPQL 문자열이 같으므로 하이버네이트 쿼리 계획 캐시(HQL -> SQL 변환 결과)도 그대로 재사용된다.</p>
+ * 조건 모양의 수는 코드에 있는 조합 수로 제한되므로 캐시 크기를 따로 제한하지 않는다.
+ */
+@Component
+public class SpecificationQuerySupport {
+
+    private static final String ALIAS = "e";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final PageCountSupport pageCountSupport;
+    private final Map<String, CompiledQuery> compiled = new ConcurrentHashMap<>();
+
+    public SpecificationQuerySupport(PageCountSupport pageCountSupport) {
+        this.pageCountSupport = pageCountSupport;
+    }
+
+    public <T> List<T> findAll(Class<T> domainType, QuerySpec<T> spec) {
+        CompiledQuery query = compile(domainType, spec);
+        TypedQuery<T> typedQuery = em.createQuery(query.jpql, domainType);
+        parameters(spec).forEach(typedQuery::setParameter);
+        return typedQuery.getResultList();
+    }
+
+    /**
+     * 정렬은 pageable 의 Sort 를 적용하고, count 는 호출한 메서드의 {@link CountStrategy} 를 따른다.
+     */
+    public <T> Page<T> findAll(Class<T> domainType, QuerySpec<T> spec, Pageable pageable) {
+        CompiledQuery query = compile(domainType, spec);
+        return pageCountSupport.page(domainType, query.jpql, query.countJpql, parameters(spec), domainType, pageable);
+    }
+
+    /**
+     * 컴파일된 JPQL (테스트/디버깅용)
+     */
+    public String jpql(Class<?> domainType, QuerySpec<?> spec) {
+        return compile(domainType, spec).jpql;
+    }
+
+    /**
+     * 조건 모양을 미리 컴파일한다. ({@link QueryWarmup})
+     *
+     * @return content JPQL, count JPQL
+     */
+    public List<String> warmup(Class<?> domainType, QuerySpec<?> spec) {
+        CompiledQuery query = compile(domainType, spec);
+        return List.of(query.jpql, query.countJpql);
+    }
+
+    private CompiledQuery compile(Class<?> domainType, QuerySpec<?> spec) {
+        return compiled.computeIfAbsent(domainType.getName() + ":" + spec.key(), key -> {
+            String entityName = em.getMetamodel().entity(domainType).getName();
+            StringBuilder from = new StringBuilder(" from ").append(entityName).append(' ').append(ALIAS);
+            for (String join : spec.joins()) {
+                from.append(spec.isLeftJoin(join) ? " left join " : " join ").append(ALIAS).append('.').append(join).append(' ').append(QuerySpec.alias(join));
+            }
+            String where = spec.isAll() ? "" : " where " + numberParameters(spec.fragment());
+            return new CompiledQuery("select " + ALIAS + from + where, "select count(" + ALIAS + ")" + from + where);
+        });
+    }
+
+    /**
+     * ? -> :p1, :p2 ... (조각에는 문자열 리터럴을 넣지 않는다.)
+     */
+    private static String numberParameters(String fragment) {
+        StringBuilder sb = new StringBuilder();
+        int index = 0;
+        for (char c : fragment.toCharArray()) {
+            if (c == '?') {
+                sb.append(":p").append(++index);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Object> parameters(QuerySpec<?> spec) {
+        Map<String, Object> parameters = new HashMap<>();
+        List<Object> values = spec.values();
+        for (int i = 0; i < values.size(); i++) {
+            parameters.put("p" + (i + 1), values.get(i));
+        }
+        return parameters;
+    }
+
+    private static class CompiledQuery {
+        private final String jpql;
+        private final String countJpql;
+
+        CompiledQuery(String jpql, String countJpql) {
+            this.jpql = jpql;
+            this.countJpql = countJpql;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.repository.support;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트로 현재 스레드에서 실행된 SQL 수와 읽은 행 수를 센다.
+ * (p6spy-spring-boot-starter 가 JdbcEventListener 빈을 자동으로 등록)
+ *
+ * <pre>
+ * long before = counter.getCount();
+ * ... 리포지토리 호출 ...
+ * long executed = counter.getCount() - before;
+ * </pre>
+ */
+@Component
+public class SqlStatementCounter extends SimpleJdbcEventListener {
+
+    private static final int STATEMENTS = 0;
+    private static final int ROWS = 1;
+
+    private static final ThreadLocal<long[]> count = ThreadLocal.withInitial(() -> new long[2]);
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        count.get()[STATEMENTS]++;
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos,
+                                     boolean hasNext, SQLException e) {
+        if (hasNext) {
+            count.get()[ROWS]++;
+        }
+    }
+
+    /**
+     * 현재 스레드에서 지금까지 실행된 SQL 수 (배치는 한 번으로 센다)
+     */
+    public long getCount() {
+        return count.get()[STATEMENTS];
+    }
+
+    /**
+     * 현재 스레드에서 지금까지 ResultSet 에서 읽은 행 수
+     */
+    public long getRowCount() {
+        return count.get()[ROWS];
+    }
+}
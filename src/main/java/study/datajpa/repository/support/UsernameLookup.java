@@ -0,0 +1,17 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * username 으로 Member 를 찾는 메서드에 {@link MemberUsernameIndex} 를 적용한다.
+ * <p>첫 번째 파라미터가 username 이고 반환 타입이 Member, Optional&lt;Member&gt;, List&lt;Member&gt; 인 메서드에 붙인다.</p>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UsernameLookup {
+}
@@ -0,0 +1,93 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.domain.Member;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * {@link UsernameLookup} 메서드 앞에서 {@link MemberUsernameIndex} 를 조회한다.
+ * <p>적중하면 쿼리 대신 id 로 em.find() 하고(2차 캐시 적중 시 SQL 없음), 실패하면 쿼리 결과로 인덱스를 채운다.</p>
+ * <p>읽기 전용 트랜잭션에서만 사용한다. 쓰기 트랜잭션은 아직 flush 되지 않은 변경(username 수정)이 있을 수 있어서
+ * 쿼리를 그대로 실행한다.</p>
+ * <p>벌크 삭제처럼 콜백 없이 지워진 회원은 em.find() 결과가 없으므로 그 자리에서 항목을 버리고 쿼리를 실행한다.</p>
+ */
+@RequiredArgsConstructor
+public class UsernameLookupInterceptor implements MethodInterceptor {
+
+    private final MemberUsernameIndex index;
+    private final EntityManager em;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (!AnnotatedElementUtils.hasAnnotation(method, UsernameLookup.class)
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return invocation.proceed();
+        }
+
+        String username = (String) invocation.getArguments()[0];
+        if (username == null) {
+            return invocation.proceed(); //is null 조회는 인덱스 대상이 아니다.
+        }
+        List<Long> ids = index.get(username);
+        if (ids != null) {
+            List<Member> members = load(username, ids);
+            if (members != null && (members.size() <= 1 || List.class.isAssignableFrom(method.getReturnType()))) {
+                return adapt(members, method.getReturnType());
+            }
+        }
+
+        long generation = index.generation(username);
+        Object result = invocation.proceed();
+        index.put(username, idsOf(result), generation);
+        return result;
+    }
+
+    /**
+     * @return 캐시된 id 가 삭제됐거나 username 이 바뀌었으면 null
+     */
+    private List<Member> load(String username, List<Long> ids) {
+        List<Member> members = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Member member = em.find(Member.class, id);
+            if (member == null || !username.equals(member.getUsername())) {
+                index.invalidate(username);
+                return null;
+            }
+            members.add(member);
+        }
+        return members;
+    }
+
+    private Object adapt(List<Member> members, Class<?> returnType) {
+        if (List.class.isAssignableFrom(returnType)) {
+            return members;
+        }
+        Member member = members.isEmpty() ? null : members.get(0);
+        return Optional.class.equals(returnType) ? Optional.ofNullable(member) : member;
+    }
+
+    private List<Long> idsOf(Object result) {
+        if (result instanceof Optional) {
+            return idsOf(((Optional<?>) result).orElse(null));
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).stream()
+                    .map(member -> ((Member) member).getId())
+                    .collect(Collectors.toList());
+        }
+        return result == null ? Collections.emptyList() : List.of(((Member) result).getId());
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 시작 시점에 {@link QueryWarmup} 이 미리 컴파일할 쿼리 (static final 필드에 붙인다.)
+ * <p>1. String: JPQL (nativeQuery = true 면 SQL, JDBC prepare 만 한다.)</p>
+ * <p>2. {@link QuerySpec} 또는 List&lt;QuerySpec&gt;: 조건 모양, {@link #domainType()} 필수 (값은 JPQL 에 들어가지 않으므로 아무 값)</p>
+ * 스프링 데이터 리포지토리의 @Query, 엔티티의 @NamedQuery 는 붙이지 않아도 대상이다.
+ */
+@Documented
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WarmupQuery {
+    boolean nativeQuery() default false;
+
+    /**
+     * {@link QuerySpec} 의 엔티티 타입
+     */
+    Class<?> domainType() default void.class;
+}
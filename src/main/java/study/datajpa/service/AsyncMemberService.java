@@ -0,0 +1,40 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 회원 조회를 요청 스레드(톰캣)가 아닌 작업 스레드에서 실행한다.
+ * <p>작업 스레드 풀은 스프링 부트의 applicationTaskExecutor (spring.task.execution.pool.*)
+ * 크기를 커넥션 풀과 맞춰서 DB 를 기다리는 스레드가 커넥션보다 많아지지 않게 한다.</p>
+ * <p>@Async 가 @Transactional 보다 바깥에서 동작하므로 트랜잭션은 작업 스레드에서 시작/종료된다.</p>
+ * 풀과 큐가 가득 차면 호출 시점에 TaskRejectedException
+ */
+@Service
+@RequiredArgsConstructor
+public class AsyncMemberService {
+
+    private final MemberRepository memberRepository;
+
+    @Async
+    @Transactional(readOnly = true)
+    public CompletableFuture<Page<MemberDto>> findPage(Pageable pageable) {
+        return CompletableFuture.completedFuture(memberRepository.findMemberDtoPage(pageable));
+    }
+
+    @Async
+    @Transactional(readOnly = true)
+    public CompletableFuture<Optional<String>> findUsername(Long id) {
+        return CompletableFuture.completedFuture(memberRepository.findById(id).map(Member::getUsername));
+    }
+}
@@ -0,0 +1,140 @@
+package study.datajpa.service;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.repository.support.BulkChangeEvent;
+import study.datajpa.repository.support.MemberUsernameIndex;
+import study.datajpa.repository.support.PageCountSupport;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 대량 등록
+ * <p>Member, Team 은 IDENTITY 전략이라 하이버네이트가 insert 를 배치로 묶지 못한다. (persist 마다 insert 즉시 실행)</p>
+ * <p>그래서 JPA 를 거치지 않고 JdbcTemplate.batchUpdate 로 batchSize 건씩 묶어서 실행한다.</p>
+ * <p>주의! 엔티티 리스너(Auditing)가 동작하지 않으므로 감사 컬럼은 여기서 직접 채우고,
+ * 생성된 id 는 엔티티에 반영되지 않는다. 영속성 컨텍스트에도 올라가지 않는다.</p>
+ * <p>하이버네이트가 변경을 모르므로 쿼리 캐시가 무효화되지 않는다. 커밋 후 2차 캐시(엔티티, Team.members, 쿼리)를 직접 비운다.</p>
+ */
+@Service
+@Transactional
+public class BulkIngestService {
+
+    private static final String INSERT_MEMBER = "insert into member" +
+            " (username, age, team_id, create_time, update_time, create_by, last_modified_by, version)" +
+            " values (?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_TEAM = "insert into team (name, version) values (?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditorAware<String> auditorProvider;
+    private final DateTimeProvider auditingDateTimeProvider;
+    private final PageCountSupport pageCountSupport;
+    private final MemberUsernameIndex memberUsernameIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory emf;
+    private final int batchSize;
+
+    public BulkIngestService(JdbcTemplate jdbcTemplate, AuditorAware<String> auditorProvider,
+                             DateTimeProvider auditingDateTimeProvider, PageCountSupport pageCountSupport,
+                             MemberUsernameIndex memberUsernameIndex, ApplicationEventPublisher eventPublisher,
+                             EntityManagerFactory emf,
+                             @Value("${datajpa.bulk.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditorProvider = auditorProvider;
+        this.auditingDateTimeProvider = auditingDateTimeProvider;
+        this.pageCountSupport = pageCountSupport;
+        this.memberUsernameIndex = memberUsernameIndex;
+        this.eventPublisher = eventPublisher;
+        this.emf = emf;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param members team 이 있다면 이미 저장된(id 가 있는) 팀이어야 한다.
+     * @return 등록한 건수
+     */
+    public int insertMembers(Collection<Member> members) {
+        //감사 정보는 배치 전체에서 한 번만 구한다. (AuditContext.withoutAuditing 안이면 null)
+        Timestamp now = auditingDateTimeProvider.getNow()
+                .map(LocalDateTime::from)
+                .map(Timestamp::valueOf)
+                .orElse(null);
+        String auditor = auditorProvider.getCurrentAuditor().orElse(null);
+
+        int[][] result = jdbcTemplate.batchUpdate(INSERT_MEMBER, members, batchSize, (ps, member) -> {
+            ps.setString(1, member.getUsername());
+            ps.setInt(2, member.getAge());
+            if (member.getTeam() == null) {
+                ps.setNull(3, Types.BIGINT);
+            } else {
+                ps.setLong(3, member.getTeam().getId());
+            }
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+            ps.setString(6, auditor);
+            ps.setString(7, auditor);
+        });
+        pageCountSupport.evict(Member.class);
+        //엔티티 리스너를 거치지 않으므로 username 인덱스도 직접 지운다.
+        members.forEach(member -> memberUsernameIndex.invalidate(member.getUsername()));
+        eventPublisher.publishEvent(new BulkChangeEvent(Member.class));
+        evictCacheAfterCommit(cache -> {
+            cache.evictEntityData(Member.class);
+            cache.evictCollectionData(Team.class.getName() + ".members");
+            cache.evictQueryRegions();
+        });
+        return sum(result);
+    }
+
+    public int insertTeams(Collection<Team> teams) {
+        int[][] result = jdbcTemplate.batchUpdate(INSERT_TEAM, teams, batchSize,
+                (ps, team) -> ps.setString(1, team.getName()));
+        pageCountSupport.evict(Team.class);
+        evictCacheAfterCommit(Cache::evictQueryRegions);
+        return sum(result);
+    }
+
+    /**
+     * 커밋 전에 비우면 다른 트랜잭션이 이전 데이터로 캐시를 다시 채울 수 있다.
+     */
+    private void evictCacheAfterCommit(Consumer<Cache> eviction) {
+        Cache cache = emf.unwrap(SessionFactory.class).getCache();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.accept(cache);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.accept(cache);
+            }
+        });
+    }
+
+    private int sum(int[][] result) {
+        int count = 0;
+        for (int[] batch : result) {
+            for (int rows : batch) {
+                //드라이버가 건수를 모르면 SUCCESS_NO_INFO(-2)를 돌려준다.
+                count += rows >= 0 ? rows : 1;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 회원 전체 내보내기
+ * 엔티티를 List 로 모으지 않고 한 건씩 읽어서 바로 출력하므로 회원 수와 상관없이 힙 사용량이 일정하다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 한 줄에 MemberDto JSON 하나 (application/x-ndjson)
+     */
+    public void exportNdjson(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Member> members = memberRepository.streamAllWithTeam(FETCH_SIZE, FETCH_SIZE)) {
+            Iterator<Member> it = members.iterator();
+            while (it.hasNext()) {
+                writer.write(objectMapper.writeValueAsString(toDto(it.next())));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    public void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,username,teamName\n");
+        try (Stream<Member> members = memberRepository.streamAllWithTeam(FETCH_SIZE, FETCH_SIZE)) {
+            Iterator<Member> it = members.iterator();
+            while (it.hasNext()) {
+                MemberDto dto = toDto(it.next());
+                writer.write(String.valueOf(dto.getId()));
+                writer.write(',');
+                writer.write(csv(dto.getUsername()));
+                writer.write(',');
+                writer.write(csv(dto.getTeamName()));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private MemberDto toDto(Member member) {
+        String teamName = member.getTeam() == null ? null : member.getTeam().getName();
+        return new MemberDto(member.getId(), member.getUsername(), teamName);
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,147 @@
+package study.datajpa.analytics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.support.BulkMutationSupport;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 변경은 커밋 후에 반영되므로 트랜잭션을 나눠서 검증한다.
+ * 다른 테스트가 커밋한 데이터가 있을 수 있어서 건수는 차이로 비교한다.
+ */
+@SpringBootTest
+class MemberColumnStoreTest {
+    @Autowired
+    MemberColumnStore store;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    BulkMutationSupport bulkMutationSupport;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        readWrite = new TransactionTemplate(transactionManager);
+        store.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        readWrite.execute(status -> {
+            memberRepository.findAll().stream()
+                    .filter(member -> member.getUsername() != null && member.getUsername().startsWith("colstore"))
+                    .forEach(memberRepository::delete);
+            teamRepository.findAll().stream()
+                    .filter(team -> team.getName().equals("colstoreTeam"))
+                    .forEach(teamRepository::delete);
+            return null;
+        });
+    }
+
+    @Test
+    void incrementalRefresh() {
+        long before = store.count();
+        long withoutTeamBefore = store.countWithoutTeam();
+
+        //저장
+        Team team = readWrite.execute(status -> teamRepository.save(new Team("colstoreTeam")));
+        Member memberA = readWrite.execute(status -> memberRepository.save(new Member("colstoreA", 10, team)));
+        Member memberB = readWrite.execute(status -> memberRepository.save(new Member("colstoreB", 15)));
+        readWrite.execute(status -> memberRepository.save(new Member("colstoreC", 25, team)));
+
+        assertThat(store.count()).isEqualTo(before + 3);
+        assertThat(store.countByUsernamePrefix("colstore")).isEqualTo(3);
+        assertThat(store.countByTeam()).containsEntry(team.getId(), 2L);
+        assertThat(store.countWithoutTeam()).isEqualTo(withoutTeamBefore + 1);
+
+        //롤백된 변경은 반영하지 않는다.
+        readWrite.execute(status -> {
+            memberRepository.save(new Member("colstoreRollback", 20));
+            status.setRollbackOnly();
+            return null;
+        });
+        assertThat(store.countByUsernamePrefix("colstore")).isEqualTo(3);
+
+        //수정
+        SortedMap<Integer, Long> histogram = store.ageHistogram(1);
+        readWrite.execute(status -> {
+            Member member = memberRepository.findById(memberA.getId()).get();
+            member.setAge(30);
+            member.setUsername("colstoreRenamed");
+            return null;
+        });
+        SortedMap<Integer, Long> changed = store.ageHistogram(1);
+        assertThat(changed.getOrDefault(30, 0L) - histogram.getOrDefault(30, 0L)).isEqualTo(1);
+        assertThat(changed.getOrDefault(10, 0L) - histogram.getOrDefault(10, 0L)).isEqualTo(-1);
+        assertThat(store.countByUsernamePrefix("colstoreRe")).isEqualTo(1);
+        assertThat(store.countByUsernamePrefix("colstoreA")).isEqualTo(0);
+
+        //삭제
+        readWrite.execute(status -> {
+            memberRepository.deleteById(memberB.getId());
+            return null;
+        });
+        assertThat(store.count()).isEqualTo(before + 2);
+        assertThat(store.countByUsernamePrefix("colstore")).isEqualTo(2);
+    }
+
+    @Test
+    void reloadAfterBulkChange() {
+        readWrite.execute(status -> memberRepository.save(new Member("colstoreBulk", 40)));
+        SortedMap<Integer, Long> histogram = store.ageHistogram(1);
+
+        //JPQL 벌크 연산은 엔티티 콜백이 없다. -> 다음 조회 때 다시 읽는다.
+        bulkMutationSupport.update(Member.class, "e.age = e.age + 1", "e.username = :username",
+                Map.of("username", "colstoreBulk"), 100);
+
+        SortedMap<Integer, Long> changed = store.ageHistogram(1);
+        assertThat(changed.getOrDefault(41, 0L) - histogram.getOrDefault(41, 0L)).isEqualTo(1);
+        assertThat(changed.getOrDefault(40, 0L) - histogram.getOrDefault(40, 0L)).isEqualTo(-1);
+    }
+
+    @Test
+    void publishedRowsAreNotChanged() {
+        Member member = readWrite.execute(status -> memberRepository.save(new Member("colstoreSnapshot", 50)));
+        store.count();
+        Object snapshot = ReflectionTestUtils.getField(store, "columns");
+        int[] ages = (int[]) ReflectionTestUtils.getField(snapshot, "ages");
+        int[] usernameCodes = (int[]) ReflectionTestUtils.getField(snapshot, "usernameCodes");
+        int[] before = ages.clone();
+        int[] usernameCodesBefore = usernameCodes.clone();
+
+        //읽는 중인 스냅샷의 행은 수정/삭제가 반영되어도 그대로다.
+        readWrite.execute(status -> {
+            Member found = memberRepository.findById(member.getId()).get();
+            found.setAge(51);
+            found.setUsername("colstoreSnapshotRenamed");
+            return null;
+        });
+        readWrite.execute(status -> {
+            memberRepository.deleteById(member.getId());
+            return null;
+        });
+
+        assertThat(ages).containsExactly(before);
+        assertThat(usernameCodes).containsExactly(usernameCodesBefore);
+        assertThat(store.countByUsernamePrefix("colstoreSnapshot")).isEqualTo(0);
+    }
+}
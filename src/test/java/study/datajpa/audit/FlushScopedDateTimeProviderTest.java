@@ -0,0 +1,70 @@
+package study.datajpa.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 트랜잭션 밖에서 호출하면 매번 시간을 구한다. (flush 단위 공유는 MemberTest.auditingTimePerFlush)
+ */
+class FlushScopedDateTimeProviderTest {
+
+    static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Test
+    void daylightSavingFallBack() {
+        //2022-11-06 02:00 EDT -> 01:00 EST
+        MutableClock clock = new MutableClock(Instant.parse("2022-11-06T05:30:00Z"), NEW_YORK);
+        FlushScopedDateTimeProvider provider = new FlushScopedDateTimeProvider(clock, true);
+        assertThat(provider.getNow()).contains(LocalDateTime.of(2022, 11, 6, 1, 30));
+
+        //UTC 로는 40분 뒤, 현지 시간은 20분 앞 -> 멈추지 않고 현지 시간을 그대로 준다.
+        clock.instant = Instant.parse("2022-11-06T06:10:00Z");
+        assertThat(provider.getNow()).contains(LocalDateTime.of(2022, 11, 6, 1, 10));
+    }
+
+    @Test
+    void clockStepBackward() {
+        MutableClock clock = new MutableClock(Instant.parse("2022-01-01T00:00:10Z"), ZoneId.of("UTC"));
+        FlushScopedDateTimeProvider provider = new FlushScopedDateTimeProvider(clock, true);
+        provider.getNow();
+
+        //시스템 시간이 뒤로 조정되면 이전에 준 시간
+        clock.instant = Instant.parse("2022-01-01T00:00:05Z");
+        assertThat(provider.getNow()).contains(LocalDateTime.of(2022, 1, 1, 0, 0, 10));
+
+        //끄면 기존 동작 (현재 시간 그대로)
+        FlushScopedDateTimeProvider disabled = new FlushScopedDateTimeProvider(clock, false);
+        assertThat(disabled.getNow()).contains(LocalDateTime.of(2022, 1, 1, 0, 0, 5));
+    }
+
+    static class MutableClock extends Clock {
+        Instant instant;
+        final ZoneId zone;
+
+        MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.BulkIngestService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 요청당 톰캣 스레드(/members) vs 작업 스레드 풀(/async/members) 처리량, p99 지연 시간 비교
+ * 부하 중에 /actuator/health 지연 시간도 같이 측정한다. (톰캣 스레드가 DB 를 기다리느라 고갈되는지 확인)
+ * ./gradlew benchmark -Dbenchmark.clients=200 -Dbenchmark.seconds=20 -Dbenchmark.tomcat-threads=20
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.org.hibernate.SQL=info",
+        "decorator.datasource.p6spy.enable-logging=false",
+        "server.tomcat.threads.max=${benchmark.tomcat-threads:20}",
+        "server.tomcat.accept-count=1000"
+})
+class AsyncLoadBenchmarkTest {
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 100);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    BulkIngestService bulkIngestService;
+
+    HttpClient client;
+
+    @BeforeAll
+    void setUp() {
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member("load" + i, i % 100));
+        }
+        bulkIngestService.insertMembers(members);
+        client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(CLIENTS))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void threadPerRequest() throws Exception {
+        run("threadPerRequest", "/members?page=10&size=20");
+    }
+
+    @Test
+    void async() throws Exception {
+        run("async", "/async/members?page=10&size=20");
+    }
+
+    private void run(String name, String path) throws Exception {
+        //워밍업
+        load(path, Math.max(1, SECONDS / 5));
+
+        Result probe = new Result();
+        ExecutorService prober = Executors.newSingleThreadExecutor();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        Future<?> probing = prober.submit(() -> {
+            while (System.nanoTime() < deadline) {
+                probe.add(call("/actuator/health"));
+                sleep(100);
+            }
+        });
+
+        Result result = load(path, SECONDS);
+        probing.get();
+        prober.shutdown();
+
+        System.out.printf("[benchmark] %s: clients %d, %.0f req/s, p50 %.1f ms, p99 %.1f ms, errors %d" +
+                        " | health p99 %.1f ms%n",
+                name, CLIENTS, result.count() / (double) SECONDS, result.percentile(50), result.percentile(99),
+                result.errors, probe.percentile(99));
+        assertThat(result.count()).isPositive();
+    }
+
+    private Result load(String path, int seconds) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                Result result = new Result();
+                while (System.nanoTime() < deadline) {
+                    result.add(call(path));
+                }
+                return result;
+            }));
+        }
+
+        Result total = new Result();
+        for (Future<Result> future : futures) {
+            total.merge(future.get());
+        }
+        clients.shutdown();
+        return total;
+    }
+
+    /**
+     * @return 지연 시간(ns), 실패하면 -1
+     */
+    private long call(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200 ? System.nanoTime() - start : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Result {
+        private long[] latencies = new long[1024];
+        private int size;
+        private int errors;
+
+        synchronized void add(long latency) {
+            if (latency < 0) {
+                errors++;
+                return;
+            }
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+        }
+
+        synchronized void merge(Result other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        synchronized int count() {
+            return size;
+        }
+
+        synchronized double percentile(int p) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            int index = Math.min(size - 1, (int) Math.ceil(p / 100.0 * size) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.audit.AuditContext;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 감사(auditing) 방식별 saveAll 처리량 비교
+ * Default: 엔티티마다 UUID 생성 + 현재 시간
+ * HighThroughput: 트랜잭션 단위 감사자/시간 캐시
+ * withoutAuditing: 감사 생략
+ * ./gradlew benchmark -Dbenchmark.rows=100000
+ */
+@Tag("benchmark")
+abstract class AuditingBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void saveAll() {
+        List<Member> members = members();
+
+        long start = System.nanoTime();
+        memberRepository.saveAll(members);
+        report(getClass().getSimpleName() + ".saveAll", start);
+    }
+
+    @Test
+    void saveAllWithoutAuditing() {
+        List<Member> members = members();
+
+        long start = System.nanoTime();
+        AuditContext.withoutAuditing(() -> memberRepository.saveAll(members));
+        report(getClass().getSimpleName() + ".saveAllWithoutAuditing", start);
+    }
+
+    private List<Member> members() {
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member("audit" + i, i % 100));
+        }
+        return members;
+    }
+
+    private void report(String name, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("[benchmark] %s: %d rows, %.2f s, %.0f rows/s%n", name, ROWS, seconds, ROWS / seconds);
+    }
+
+    @SpringBootTest(properties = {
+            "datajpa.auditing.high-throughput=false",
+            "logging.level.org.hibernate.SQL=info",
+            "decorator.datasource.p6spy.enable-logging=false"
+    })
+    static class Default extends AuditingBenchmarkTest {
+    }
+
+    @SpringBootTest(properties = {
+            "datajpa.auditing.high-throughput=true",
+            "logging.level.org.hibernate.SQL=info",
+            "decorator.datasource.p6spy.enable-logging=false"
+    })
+    static class HighThroughput extends AuditingBenchmarkTest {
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.BulkIngestService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * saveAll(IDENTITY, 건마다 insert) vs JDBC batch insert 처리량 비교
+ * ./gradlew benchmark -Dbenchmark.rows=100000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=info",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+class BulkInsertBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    BulkIngestService bulkIngestService;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void saveAll() {
+        List<Member> members = members("saveAll");
+
+        long start = System.nanoTime();
+        memberRepository.saveAll(members);
+        report("saveAll", start);
+
+        assertThat(memberRepository.count()).isEqualTo(ROWS);
+    }
+
+    @Test
+    void jdbcBatch() {
+        List<Member> members = members("jdbcBatch");
+
+        long start = System.nanoTime();
+        bulkIngestService.insertMembers(members);
+        report("jdbcBatch", start);
+
+        assertThat(memberRepository.count()).isEqualTo(ROWS);
+    }
+
+    private List<Member> members(String prefix) {
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member(prefix + i, i % 100));
+        }
+        return members;
+    }
+
+    private void report(String name, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("[benchmark] %s: %d rows, %.2f s, %.0f rows/s%n", name, ROWS, seconds, ROWS / seconds);
+    }
+}
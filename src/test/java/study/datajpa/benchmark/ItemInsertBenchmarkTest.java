@@ -0,0 +1,81 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.domain.Item;
+import study.datajpa.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * saveAll(merge: select + insert) vs insertAll(persist + batch) vs insertIfAbsent(MERGE) 처리량 비교
+ * ./gradlew benchmark -Dbenchmark.rows=100000
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=info",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+class ItemInsertBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void saveAll() {
+        List<Item> items = items("saveAll");
+
+        long start = System.nanoTime();
+        itemRepository.saveAll(items);
+        report("saveAll", start);
+
+        assertThat(itemRepository.count()).isEqualTo(ROWS);
+    }
+
+    @Test
+    void insertAll() {
+        List<Item> items = items("insertAll");
+
+        long start = System.nanoTime();
+        itemRepository.insertAll(items);
+        report("insertAll", start);
+
+        assertThat(itemRepository.count()).isEqualTo(ROWS);
+    }
+
+    @Test
+    void insertIfAbsent() {
+        List<Item> items = items("insertIfAbsent");
+
+        long start = System.nanoTime();
+        itemRepository.insertIfAbsent(items);
+        report("insertIfAbsent", start);
+
+        assertThat(itemRepository.count()).isEqualTo(ROWS);
+    }
+
+    private List<Item> items(String prefix) {
+        List<Item> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new Item(prefix + i));
+        }
+        return items;
+    }
+
+    private void report(String name, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("[benchmark] %s: %d rows, %.2f s, %.0f rows/s%n", name, ROWS, seconds, ROWS / seconds);
+    }
+}
@@ -0,0 +1,103 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.RetryOnConflictExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * N 개 스레드가 겹치는 회원의 나이를 올릴 때 처리량 비교
+ * pessimistic: findLockByUsername (select ... for update)
+ * optimistic: @Version + RetryOnConflictExecutor
+ * ./gradlew benchmark -Dbenchmark.threads=16 -Dbenchmark.members=4 -Dbenchmark.updates=200
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=info",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+class LockingBenchmarkTest {
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final int MEMBERS = Integer.getInteger("benchmark.members", 4);
+    private static final int UPDATES = Integer.getInteger("benchmark.updates", 100); //스레드당
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    RetryOnConflictExecutor retryOnConflictExecutor;
+
+    List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < MEMBERS; i++) {
+            ids.add(memberRepository.save(new Member("lock" + i, 0)).getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void pessimistic() throws Exception {
+        run("pessimistic", id -> transactionTemplate.executeWithoutResult(status -> {
+            for (Member member : memberRepository.findLockByUsername(username(id))) {
+                member.setAge(member.getAge() + 1);
+            }
+        }));
+    }
+
+    @Test
+    void optimistic() throws Exception {
+        run("optimistic", id -> retryOnConflictExecutor.execute(1_000, status -> {
+            Member member = memberRepository.findById(id).get();
+            member.setAge(member.getAge() + 1);
+            return null;
+        }));
+    }
+
+    private String username(Long id) {
+        return "lock" + ids.indexOf(id);
+    }
+
+    private void run(String name, Consumer<Long> update) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < UPDATES; i++) {
+                    update.accept(ids.get((thread + i) % ids.size()));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        int total = THREADS * UPDATES;
+        System.out.printf("[benchmark] %s: %d threads, %d members, %d updates, %.2f s, %.0f updates/s%n",
+                name, THREADS, MEMBERS, total, seconds, total / seconds);
+    }
+}
@@ -0,0 +1,138 @@
+package study.datajpa.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import study.datajpa.DataJpaApplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 시작 시간 비교: 기본 설정 vs fast-start 프로필
+ * <p>애플리케이션을 별도 JVM 으로 띄워서(매번 콜드 스타트) 프로세스 시작부터 측정한다.</p>
+ * <ul>
+ *     <li>firstRequest: GET /members 가 처음 200 으로 응답할 때까지</li>
+ *     <li>ready: /actuator/health/readiness 가 UP 일 때까지 (QueryWarmup 포함)</li>
+ * </ul>
+ * 결과는 build/reports/startup/startup.csv 에 누적해서 추이를 본다.
+ * ./gradlew benchmark --tests '*StartupBenchmarkTest' -Dbenchmark.startup.runs=5
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+    private static final int RUNS = Integer.getInteger("benchmark.startup.runs", 3);
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+    private static final Path REPORT_DIR = Paths.get("build", "reports", "startup");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @Test
+    void defaultProfile() throws Exception {
+        run("default");
+    }
+
+    @Test
+    void fastStartProfile() throws Exception {
+        run("fast-start");
+    }
+
+    private void run(String profile) throws Exception {
+        Files.createDirectories(REPORT_DIR);
+        long[] firstRequest = new long[RUNS];
+        long[] ready = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long[] result = startOnce(profile, i);
+            firstRequest[i] = result[0];
+            ready[i] = result[1];
+            System.out.printf("[benchmark] startup %s #%d: first request %d ms, ready %d ms%n",
+                    profile, i, result[0], result[1]);
+        }
+        Arrays.sort(firstRequest);
+        Arrays.sort(ready);
+        long firstRequestMedian = firstRequest[RUNS / 2];
+        long readyMedian = ready[RUNS / 2];
+        System.out.printf("[benchmark] startup %s: first request median %d ms, ready median %d ms (%d runs)%n",
+                profile, firstRequestMedian, readyMedian, RUNS);
+
+        String line = String.format("%s,%s,%d,%d,%d%n", LocalDateTime.now(), profile, RUNS, firstRequestMedian, readyMedian);
+        Path csv = REPORT_DIR.resolve("startup.csv");
+        if (Files.notExists(csv)) {
+            Files.writeString(csv, "time,profile,runs,firstRequestMs,readyMs\n", StandardCharsets.UTF_8);
+        }
+        Files.writeString(csv, line, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return {첫 요청까지 ms, readiness UP 까지 ms}
+     */
+    private long[] startOnce(String profile, int run) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                DataJpaApplication.class.getName(),
+                "--server.port=" + port,
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--decorator.datasource.p6spy.enable-logging=false"));
+        if (!"default".equals(profile)) {
+            command.add("--spring.profiles.active=" + profile);
+        }
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(REPORT_DIR.resolve(profile + "-" + run + ".log").toFile())
+                .start();
+        try {
+            long firstRequest = waitFor(process, "http://localhost:" + port + "/members?page=1", start);
+            long ready = waitFor(process, "http://localhost:" + port + "/actuator/health/readiness", start);
+            return new long[]{firstRequest, ready};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private long waitFor(Process process, String url, long start) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).GET().build();
+        while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+            assertThat(process.isAlive()).as("애플리케이션이 종료되었습니다. (build/reports/startup 로그 확인)").isTrue();
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return (System.nanoTime() - start) / 1_000_000;
+                }
+            } catch (IOException e) {
+                //아직 포트를 열지 않음
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError(url + " 응답 없음 (" + TIMEOUT + ")");
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * fast-start 프로필은 시작만 빠르게 하고 조회 결과는 기본 프로필과 같아야 한다.
+ * 기본 테스트 DB 와 섞이지 않도록 별도 H2 를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fast-start")
+@ActiveProfiles("fast-start")
+@Transactional
+class FastStartProfileTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void nullArgument() {
+        //given
+        memberRepository.save(new Member(null, 10));
+        memberRepository.save(new Member("fastStart", 10));
+
+        //when, then
+        //메서드 이름 쿼리 그대로 null 은 is null 로 비교한다.
+        assertThat(memberRepository.findListByUsername(null)).extracting("username").containsExactly((Object) null);
+        assertThat(memberRepository.findOptionalByUsername(null)).isPresent();
+        assertThat(memberRepository.findByUsernameAndAgeGreaterThan(null, 5)).hasSize(1);
+    }
+
+    @Test
+    void precomputedDerivedQuery() {
+        //given
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        memberRepository.save(new Member("fastStart", 77));
+
+        //when
+        memberRepository.findByAge(77, PageRequest.of(0, 10));
+
+        //then
+        //META-INF/fast-start-named-queries.properties 의 JPQL 로 실행된다. (메서드 이름 파싱, Criteria 생성 X)
+        assertThat(statistics.getQueries()).contains("select m from Member m where m.age = ?1");
+    }
+}
@@ -0,0 +1,94 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * H2 두 개(primary, replica)로 읽기/쓰기 라우팅 검증
+ * 복제는 흉내만 낸다: primary 스키마를 replica 에 복사하고, replica 에만 있는 행으로 어느 DB 를 읽었는지 구분한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "datajpa.replica.enabled=true",
+        "datajpa.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "datajpa.replica.lag-query=select lag_seconds from replica_lag",
+        "datajpa.replica.check-interval-ms=3600000"
+})
+class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    ReplicaHealth replicaHealth;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    TransactionTemplate readOnly;
+    TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        //primary 스키마를 replica 에 복사
+        List<String> ddl = new JdbcTemplate(dataSource).queryForList("script nodata", String.class);
+        replica.execute("drop all objects");
+        ddl.forEach(replica::execute);
+        replica.execute("create table replica_lag (lag_seconds int)");
+        replica.update("insert into replica_lag values (0)");
+        replica.update("insert into member (member_id, username, age, version) values (1000, 'replicaOnly', 1, 0)");
+        replicaHealth.check();
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void routing() {
+        assertThat(replicaHealth.isAvailable()).isTrue();
+        assertThat(readOnly.execute(status -> memberRepository.findListByUsername("replicaOnly"))).hasSize(1);
+        assertThat(readWrite.execute(status -> memberRepository.findListByUsername("replicaOnly"))).isEmpty();
+    }
+
+    @Test
+    void fallbackWhenReplicaLags() {
+        //given
+        replica.update("update replica_lag set lag_seconds = 100");
+
+        //when
+        replicaHealth.check();
+
+        //then
+        assertThat(replicaHealth.isAvailable()).isFalse();
+        assertThat(readOnly.execute(status -> memberRepository.findListByUsername("replicaOnly"))).isEmpty();
+    }
+
+    @Test
+    void unavailableWhenSchemaMissing() {
+        //given
+        //스키마가 복제되지 않은 replica (빈 DB)
+        replica.execute("drop table member");
+
+        //when
+        replicaHealth.check();
+
+        //then
+        assertThat(replicaHealth.isAvailable()).isFalse();
+        assertThat(readOnly.execute(status -> memberRepository.findListByUsername("replicaOnly"))).isEmpty();
+    }
+}
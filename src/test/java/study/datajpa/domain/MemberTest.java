@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.audit.AuditContext;
 import study.datajpa.repository.MemberRepository;
 
 import javax.persistence.EntityManager;
@@ -11,6 +12,7 @@ import javax.persistence.PersistenceContext;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -53,6 +55,23 @@ class MemberTest {
         }
     }
 
+    @Test
+    public void changeTeam() {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Member member = new Member("member1", 10, teamA);
+        assertThat(teamA.getMembers()).containsExactly(member);
+
+        //when
+        member.changeTeam(teamB);
+
+        //then
+        //연관관계 편의 메서드가 양쪽을 맞춘다.
+        assertThat(teamA.getMembers()).isEmpty();
+        assertThat(teamB.getMembers()).containsExactly(member);
+    }
+
     @Test
     @Transactional
     public void JpaEventBaseEntity() throws InterruptedException {
@@ -76,4 +95,48 @@ class MemberTest {
         System.out.println("findMember.LastModifiedBy="+findMember.getLastModifiedBy());
     }
 
-}
\ No newline at end of file
+    @Test
+    @Transactional
+    public void auditingSharedInTransaction() {
+        //given
+        Member member1 = memberRepository.save(new Member("member1"));
+        Member member2 = memberRepository.save(new Member("member2"));
+
+        //then
+        //감사자와 시간은 트랜잭션 단위로 한 번만 구한다.
+        assertThat(member1.getCreateBy()).isNotNull();
+        assertThat(member1.getCreateBy()).isEqualTo(member2.getCreateBy());
+        assertThat(member1.getCreateTime()).isEqualTo(member2.getCreateTime());
+    }
+
+    @Test
+    @Transactional
+    public void auditingTimePerFlush() throws InterruptedException {
+        //given
+        Member member1 = memberRepository.save(new Member("member1"));
+        em.flush();
+        Thread.sleep(10);
+
+        //when
+        Member member2 = memberRepository.save(new Member("member2"));
+        member1.setUsername("member1-updated");
+        em.flush();
+
+        //then
+        //flush 가 끝나면 감사 시간을 다시 구한다. (트랜잭션 시작 시간을 계속 쓰지 않는다.)
+        assertThat(member2.getCreateTime()).isAfter(member1.getCreateTime());
+        assertThat(member1.getUpdateTime()).isEqualTo(member2.getCreateTime());
+    }
+
+    @Test
+    @Transactional
+    public void withoutAuditing() {
+        //when
+        Member member = AuditContext.withoutAuditing(() -> memberRepository.save(new Member("member1")));
+
+        //then
+        assertThat(member.getCreateBy()).isNull();
+        assertThat(member.getCreateTime()).isNull();
+    }
+
+}
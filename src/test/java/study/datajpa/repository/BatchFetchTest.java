@@ -0,0 +1,81 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.repository.support.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * default_batch_fetch_size, @BatchSize 로 fetch join 없이 N+1 을 1+1 로 줄이는지 SQL 수로 검증
+ */
+@SpringBootTest
+@Transactional
+class BatchFetchTest {
+    private static final int TEAM_COUNT = 10;
+    private static final int MEMBERS_PER_TEAM = 3;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    SqlStatementCounter counter;
+
+    @Test
+    void memberTeam() {
+        //given
+        saveTeams();
+
+        //when
+        long before = counter.getCount();
+        List<Member> members = em.createQuery("select m from Member m where m.username like 'batch%'", Member.class)
+                .getResultList();
+        for (Member member : members) {
+            member.getTeam().getName(); //지연 로딩
+        }
+        long executed = counter.getCount() - before;
+
+        //then
+        assertThat(members.size()).isEqualTo(TEAM_COUNT * MEMBERS_PER_TEAM);
+        assertThat(executed).isEqualTo(2); //회원 조회 1 + 팀 IN 조회 1
+    }
+
+    @Test
+    void teamMembers() {
+        //given
+        saveTeams();
+
+        //when
+        long before = counter.getCount();
+        List<Team> teams = em.createQuery("select t from Team t where t.name like 'batch%'", Team.class)
+                .getResultList();
+        int memberCount = 0;
+        for (Team team : teams) {
+            memberCount += team.getMembers().size(); //지연 로딩
+        }
+        long executed = counter.getCount() - before;
+
+        //then
+        assertThat(teams.size()).isEqualTo(TEAM_COUNT);
+        assertThat(memberCount).isEqualTo(TEAM_COUNT * MEMBERS_PER_TEAM);
+        assertThat(executed).isEqualTo(2); //팀 조회 1 + 회원 IN 조회 1
+    }
+
+    private void saveTeams() {
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            Team team = new Team("batchTeam" + i);
+            em.persist(team);
+            for (int j = 0; j < MEMBERS_PER_TEAM; j++) {
+                em.persist(new Member("batch" + i + "_" + j, j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+}
@@ -3,15 +3,72 @@ package study.datajpa.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.domain.Item;
+import study.datajpa.domain.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
 class ItemRepositoryTest {
     @Autowired
     ItemRepository itemRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManager em;
 
     @Test
     void save() {
         itemRepository.save(new Item("A"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional
+    void insertAll() {
+        int count = itemRepository.insertAll(List.of(new Item("B1"), new Item("B2")));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(itemRepository.findById("B1")).isPresent();
+        assertThat(itemRepository.findById("B2").get().getCreateDate()).isNotNull();
+    }
+
+    @Test
+    @Transactional
+    void insertAllKeepsCallerEntities() {
+        Member member = memberRepository.save(new Member("itemCaller", 10));
+        Item item = new Item("E1");
+
+        itemRepository.insertAll(List.of(item));
+
+        //등록한 Item 만 준영속, 호출한 쪽의 회원은 그대로 관리된다.
+        assertThat(em.contains(item)).isFalse();
+        assertThat(em.contains(member)).isTrue();
+    }
+
+    @Test
+    @Transactional
+    void insertIfAbsent() {
+        itemRepository.insertAll(List.of(new Item("C1")));
+
+        int inserted = itemRepository.insertIfAbsent(List.of(new Item("C1"), new Item("C2")));
+
+        assertThat(inserted).isEqualTo(1);
+        assertThat(itemRepository.findById("C2")).isPresent();
+    }
+
+    @Test
+    void insertWithoutCallerTransaction() {
+        //호출한 쪽에 트랜잭션이 없어도 리포지토리가 트랜잭션을 시작한다.
+        try {
+            assertThat(itemRepository.insertAll(List.of(new Item("D1")))).isEqualTo(1);
+            assertThat(itemRepository.insertIfAbsent(List.of(new Item("D1"), new Item("D2")))).isEqualTo(1);
+            assertThat(itemRepository.findAllById(List.of("D1", "D2"))).hasSize(2);
+        } finally {
+            itemRepository.deleteAllByIdInBatch(List.of("D1", "D2"));
+        }
+    }
+}
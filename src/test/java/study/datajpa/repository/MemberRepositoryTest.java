@@ -1,8 +1,12 @@
 package study.datajpa.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
@@ -10,13 +14,21 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.domain.Member;
 import study.datajpa.domain.Team;
+import study.datajpa.dto.KeysetWindow;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.dto.UsernameOnlyDto;
+import study.datajpa.repository.support.ProjectionQuerySupport;
+import study.datajpa.repository.support.QuerySpec;
+import study.datajpa.repository.support.SpecificationQuerySupport;
 
 import javax.persistence.EntityManager;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +42,10 @@ class MemberRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
     @Autowired
+    ProjectionQuerySupport projectionQuerySupport;
+    @Autowired
+    SpecificationQuerySupport specificationQuerySupport;
+    @Autowired
     EntityManager em;
 
     @Test
@@ -165,6 +181,148 @@ class MemberRepositoryTest {
         assertThat(page.hasNext()).isTrue(); //다음 페이지가 있는가?
     }
 
+    @Test
+    @Rollback
+    public void derivedQueryNullArgument() {
+        //미리 풀어 둔 JPQL(fast-start-named-queries.properties)은 fast-start 프로필에서만 쓴다.
+        //기본 프로필에서는 메서드 이름 쿼리 그대로라서 null 파라미터는 is null 로 비교된다.
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        memberRepository.save(new Member(null, 77));
+        memberRepository.save(new Member("zq1", 60));
+
+        List<Member> result = memberRepository.findListByUsername(null);
+
+        assertThat(result).isNotEmpty().allMatch(member -> member.getUsername() == null);
+        assertThat(statistics.getQueries()).doesNotContain("select m from Member m where m.username = ?1");
+    }
+
+    @Test
+    @Rollback //다른 테스트 데이터에 영향을 주지 않도록
+    public void keysetPaging() {
+        //given
+        //다른 테스트 데이터보다 앞(username desc)에 오도록 zz 접두어를 사용
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("zz1", 10, teamA));
+        memberRepository.save(new Member("zz2", 10, teamA));
+        memberRepository.save(new Member("zz3", 10));
+        memberRepository.save(new Member("zz3", 20));
+        memberRepository.save(new Member("zz4", 10));
+
+        //when
+        KeysetWindow<MemberDto> first = memberRepository.findMemberDtoWindow(null, 3);
+        KeysetWindow<MemberDto> second = memberRepository.findMemberDtoWindow(
+                MemberCursor.decode(first.getNextCursor()), 2);
+
+        //then
+        assertThat(first.getContent()).extracting("username")
+                .containsExactly("zz4", "zz3", "zz3");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username")
+                .containsExactly("zz2", "zz1");
+        assertThat(second.getContent()).extracting("teamName")
+                .containsExactly("teamA", "teamA");
+    }
+
+    @Test
+    @Rollback
+    public void keysetPagingNullUsername() {
+        //given
+        Member null1 = memberRepository.save(new Member(null, 10));
+        Member null2 = memberRepository.save(new Member(null, 20));
+
+        //when
+        //가장 작은 username 뒤 -> username 이 null 인 회원 (맨 뒤)
+        KeysetWindow<MemberDto> afterNonNull = memberRepository.findMemberDtoWindow(
+                new MemberCursor("", Long.MAX_VALUE), Integer.MAX_VALUE - 1);
+        MemberCursor nullCursor = MemberCursor.decode(new MemberCursor(null, null1.getId()).encode());
+        KeysetWindow<MemberDto> afterNull = memberRepository.findMemberDtoWindow(nullCursor, 1);
+
+        //then
+        assertThat(afterNonNull.getContent()).extracting("id").contains(null1.getId(), null2.getId());
+        assertThat(afterNonNull.getContent()).extracting("username").containsOnlyNulls();
+        assertThat(nullCursor).isEqualTo(new MemberCursor(null, null1.getId()));
+        assertThat(afterNull.getContent()).extracting("id").containsExactly(null2.getId());
+    }
+
+    @Test
+    @Rollback
+    public void cachedCount() {
+        //given
+        memberRepository.save(new Member("member1", 77));
+        memberRepository.save(new Member("member2", 77));
+        PageRequest pageRequest = PageRequest.of(1, 1, Sort.by(Sort.Direction.DESC, "username"));
+        assertThat(memberRepository.findPageByAge(77, pageRequest).getTotalElements()).isEqualTo(2);
+
+        //when
+        em.persist(new Member("member3", 77)); //리포지토리를 거치지 않으면 캐시가 유지된다.
+        long cached = memberRepository.findPageByAge(77, pageRequest).getTotalElements();
+        memberRepository.save(new Member("member4", 77)); //리포지토리 쓰기 -> 캐시 무효화
+        long refreshed = memberRepository.findPageByAge(77, pageRequest).getTotalElements();
+
+        //then
+        assertThat(cached).isEqualTo(2);
+        assertThat(refreshed).isEqualTo(4);
+    }
+
+    @Test
+    @Rollback
+    public void estimatedCount() {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        em.flush();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long countBefore = statistics.getQueryStatistics("select count(m) from Member m").getExecutionCount();
+
+        //when
+        Page<Member> page = memberRepository.findPageAll(PageRequest.of(0, 1));
+
+        //then
+        //count 쿼리 대신 테이블 통계 추정치 (현재 페이지까지의 건수보다 작으면 그 값)
+        assertThat(page.getContent().size()).isEqualTo(1);
+        assertThat(page.getTotalElements()).isPositive();
+        assertThat(statistics.getQueryStatistics("select count(m) from Member m").getExecutionCount())
+                .isEqualTo(countBefore);
+    }
+
+    @Test
+    @Rollback
+    public void memberDtoPage() {
+        //given
+        Team team = new Team("teamA");
+        teamRepository.save(team);
+        memberRepository.save(new Member("zzz1", 10, team));
+        memberRepository.save(new Member("zzz2", 10));
+        em.flush();
+        em.clear();
+
+        //when
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username")));
+
+        //then
+        assertThat(page.getContent()).extracting("username").containsExactly("zzz2", "zzz1");
+        assertThat(page.getContent()).extracting("teamName").containsExactly(null, "teamA");
+        //엔티티를 만들지 않으므로 영속성 컨텍스트가 비어 있다.
+        assertThat(em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities()).isZero();
+    }
+
+    @Test
+    @Rollback
+    public void hasNextCount() {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+
+        //when
+        Page<Member> page = memberRepository.findMemberAllPage(PageRequest.of(0, 1));
+
+        //then
+        assertThat(page.getContent().size()).isEqualTo(1);
+        assertThat(page.hasNext()).isTrue();
+    }
+
 //    @Test
 //    public void slicing() {
 //        //given
@@ -218,6 +376,65 @@ class MemberRepositoryTest {
         assertThat(resultCount).isEqualTo(3);
     }
 
+    @Test
+    @Rollback
+    public void bulkAgePlusChunked() {
+        //given
+        Member member1 = memberRepository.save(new Member("chunk1", 1000));
+        Member member2 = memberRepository.save(new Member("chunk2", 5));
+        Member member3 = memberRepository.save(new Member("chunk3", 1001));
+
+        //when
+        int resultCount = memberRepository.bulkAgePlusChunked(1000, 1);
+
+        //then
+        assertThat(resultCount).isEqualTo(2);
+        //영속성 컨텍스트를 비우지 않고 대상 엔티티만 DB 상태로 갱신
+        assertThat(em.contains(member2)).isTrue();
+        assertThat(member1.getAge()).isEqualTo(1001);
+        assertThat(member3.getAge()).isEqualTo(1002);
+    }
+
+    @Test
+    @Rollback
+    public void bulkAgePlusChunkedSparseIds() {
+        //given
+        //대상 사이에 대상이 아닌 행이 많아도 (id 가 듬성듬성) 빈 청크를 실행하지 않는다.
+        memberRepository.save(new Member("sparse1", 900000));
+        for (int i = 0; i < 30; i++) {
+            memberRepository.save(new Member("sparseGap" + i, 5));
+        }
+        memberRepository.save(new Member("sparse2", 900001));
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        //when
+        int resultCount = memberRepository.bulkAgePlusChunked(900000, 1);
+
+        //then
+        assertThat(resultCount).isEqualTo(2);
+        //청크마다 경계 조회 + DML, 마지막 청크 한 번 더 -> 6 (id 값 범위로 나누면 32)
+        assertThat(statistics.getPrepareStatementCount() - before).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    @Rollback
+    public void bulkDeleteByAgeLessThan() {
+        //given
+        Member member1 = memberRepository.save(new Member("chunk1", -500));
+        Member member2 = memberRepository.save(new Member("chunk2", -50));
+
+        //when
+        int resultCount = memberRepository.bulkDeleteByAgeLessThan(-100, 10);
+
+        //then
+        assertThat(resultCount).isEqualTo(1);
+        assertThat(em.contains(member1)).isFalse();
+        assertThat(em.contains(member2)).isTrue();
+    }
+
     /**
      * EntityGraph
      * 연관된 엔티티들을 SQL 한번에 조회하는 방법 (fetch join)
@@ -249,6 +466,31 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @Rollback
+    public void streamAllWithTeam() {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("stream" + i, 10, teamA));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        List<Member> result = new ArrayList<>();
+        try (Stream<Member> stream = memberRepository.streamAllWithTeam(2, 2)) {
+            stream.filter(m -> m.getUsername().startsWith("stream"))
+                    .forEach(result::add);
+        }
+
+        //then
+        assertThat(result.size()).isEqualTo(5);
+        assertThat(result).extracting(m -> m.getTeam().getName()).containsOnly("teamA");
+        assertThat(em.contains(result.get(0))).isFalse(); //중간에 영속성 컨텍스트가 비워졌다.
+    }
+
     @Test
     public void queryHint() {
         //given
@@ -322,6 +564,69 @@ class MemberRepositoryTest {
         Assertions.assertThat(result.size()).isEqualTo(1);
     }
 
+    @Test
+    @Rollback
+    public void compiledSpec() {
+        //given
+        Team teamA = new Team("zsTeamA");
+        Team teamB = new Team("zsTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("zs1", 10, teamA));
+        em.persist(new Member("zs1", 20, teamB));
+        em.persist(new Member("zs2", 30, teamA));
+        em.flush();
+        em.clear();
+
+        //when
+        QuerySpec<Member> teamASpec = MemberSpec.username("zs1").and(MemberSpec.teamName("zsTeamA"));
+        QuerySpec<Member> teamBSpec = MemberSpec.username("zs1").and(MemberSpec.teamName("zsTeamB"));
+        QuerySpec<Member> noTeam = MemberSpec.username("zs1").and(MemberSpec.teamName(" "));
+
+        //then
+        assertThat(memberRepository.findAllBySpec(teamASpec)).extracting("age").containsExactly(10);
+        assertThat(memberRepository.findAllBySpec(teamBSpec)).extracting("age").containsExactly(20);
+        assertThat(memberRepository.findAll(teamASpec)).hasSize(1); //Criteria 로도 같은 결과
+        //값만 다른 조합은 같은 JPQL
+        assertThat(specificationQuerySupport.jpql(Member.class, teamASpec))
+                .isSameAs(specificationQuerySupport.jpql(Member.class, teamBSpec));
+        //팀 조건이 없으면 조인도 없다.
+        assertThat(specificationQuerySupport.jpql(Member.class, noTeam)).doesNotContain("join");
+        assertThat(memberRepository.findAllBySpec(noTeam)).hasSize(2);
+
+        Page<Member> page = memberRepository.findAllBySpec(MemberSpec.teamName("zsTeamA").and(MemberSpec.ageGoe(5)),
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "age")));
+        assertThat(page.getContent()).extracting("username").containsExactly("zs2");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @Rollback
+    public void compiledSpecOr() {
+        //given
+        Team team = new Team("zoTeam");
+        em.persist(team);
+        em.persist(new Member("zo1", 10)); //팀 없음
+        em.persist(new Member("zo2", 20, team));
+        em.persist(new Member("zo3", 30));
+        em.flush();
+        em.clear();
+
+        //when
+        QuerySpec<Member> spec = MemberSpec.username("zo1").or(MemberSpec.teamName("zoTeam"));
+
+        //then
+        //or 로 조합된 조인은 left join -> 팀이 없는 zo1 도 포함
+        assertThat(specificationQuerySupport.jpql(Member.class, spec)).contains("left join");
+        assertThat(memberRepository.findAllBySpec(spec)).extracting("username")
+                .containsExactlyInAnyOrder("zo1", "zo2");
+        assertThat(memberRepository.findAll(spec)).extracting("username") //Criteria 로도 같은 결과
+                .containsExactlyInAnyOrder("zo1", "zo2");
+        //and 만 있으면 inner join
+        assertThat(specificationQuerySupport.jpql(Member.class, MemberSpec.username("zo2").and(MemberSpec.teamName("zoTeam"))))
+                .doesNotContain("left join");
+    }
+
     /**
      * 동적 쿼리를 편리하게 처리
      * 도메인 객체 그대로 사용
@@ -396,6 +701,74 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @Rollback
+    void compiledProjections() {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("zp1", 10, teamA));
+        em.persist(new Member("zp2", 20));
+        em.flush();
+        em.clear();
+
+        //when
+        List<NestedClosedProjections> nested = memberRepository.findProjectedByUsername("zp1", NestedClosedProjections.class);
+        List<NestedClosedProjections> noTeam = memberRepository.findProjectedByUsername("zp2", NestedClosedProjections.class);
+        List<UsernameAndAge> spel = memberRepository.findProjectedByUsername("zp1", UsernameAndAge.class);
+
+        //then
+        assertThat(projectionQuerySupport.jpql(Member.class, NestedClosedProjections.class))
+                .isEqualTo("select j1.id, j1.name, e.username from Member e left join e.team j1");
+        assertThat(nested).hasSize(1);
+        assertThat(nested.get(0).getUsername()).isEqualTo("zp1");
+        assertThat(nested.get(0).getTeam().getName()).isEqualTo("teamA");
+        assertThat(Proxy.isProxyClass(nested.get(0).getClass())).isFalse();
+        assertThat(noTeam.get(0).getTeam()).isNull();
+        assertThat(spel.get(0).getUsernameAndAge()).isEqualTo("zp1 10");
+        assertThat(projectionQuerySupport.jpql(Member.class, UsernameAndAge.class))
+                .isEqualTo("select e.username, e.age from Member e");
+    }
+
+    public interface UsernameAndAge {
+        @Value("#{target.username + ' ' + target.age}")
+        String getUsernameAndAge();
+    }
+
+    @Test
+    @Rollback
+    void nativeMemberDto() {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("zn1", 0, teamA));
+        em.persist(new Member("zn2", 0, teamB));
+        em.persist(new Member("zn3", 0)); //flush 하지 않아도 조회 전에 반영된다.
+
+        //when
+        long total = memberRepository.count();
+        Page<MemberProjection> projections = memberRepository.findByNativeProjection(PageRequest.of(0, (int) total + 1));
+        Page<MemberDto> page = memberRepository.findNativeMemberDtoPage(
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username")));
+        List<MemberDto> streamed;
+        try (Stream<MemberDto> stream = memberRepository.streamNativeMemberDto(2)) {
+            streamed = stream.filter(dto -> dto.getUsername().startsWith("zn")).collect(Collectors.toList());
+        }
+
+        //then
+        assertThat(projections.getContent()).hasSize((int) total); //카타시안 곱 X
+        assertThat(projections.getContent())
+                .filteredOn(p -> p.getUsername().startsWith("zn"))
+                .extracting("username", "teamName")
+                .containsExactlyInAnyOrder(tuple("zn1", "teamA"), tuple("zn2", "teamB"), tuple("zn3", null));
+        assertThat(page.getTotalElements()).isEqualTo(total);
+        assertThat(page.getContent()).extracting("username").startsWith("zn3");
+        assertThat(streamed).extracting("username").containsExactly("zn1", "zn2", "zn3");
+        assertThat(streamed).extracting("teamName").containsExactly("teamA", "teamB", null);
+    }
+
     @Test
     void nativeQuery() {
         //given
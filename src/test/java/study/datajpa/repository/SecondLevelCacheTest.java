@@ -0,0 +1,73 @@
+package study.datajpa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 2차 캐시는 트랜잭션(영속성 컨텍스트)을 넘어서 공유되므로 트랜잭션을 나눠서 검증한다.
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory emf;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void teamEntityCache() {
+        //given
+        Long teamId = transactionTemplate.execute(status -> teamRepository.save(new Team("cacheTeam")).getId());
+        transactionTemplate.execute(status -> teamRepository.findById(teamId).get());
+
+        //when
+        long statements = countStatements(() -> transactionTemplate.execute(status -> teamRepository.findById(teamId).get()));
+
+        //then
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    void queryCache() {
+        //given
+        transactionTemplate.execute(status -> memberRepository.save(new Member("cacheMember", 10)));
+        transactionTemplate.execute(status -> memberRepository.findMemberByUsername("cacheMember"));
+
+        //when
+        long hitBefore = statistics.getQueryCacheHitCount();
+        long statements = countStatements(() -> transactionTemplate.execute(
+                status -> memberRepository.findMemberByUsername("cacheMember")));
+
+        //then
+        assertThat(statements).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(hitBefore);
+    }
+
+    private long countStatements(Supplier<?> action) {
+        long before = statistics.getPrepareStatementCount();
+        action.get();
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -0,0 +1,183 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 인덱스는 트랜잭션을 넘어서 공유되므로 트랜잭션을 나눠서 검증한다.
+ */
+@SpringBootTest
+class MemberUsernameIndexTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberUsernameIndex index;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    BulkMutationSupport bulkMutationSupport;
+
+    TransactionTemplate readWrite;
+    Statistics statistics;
+    Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        readWrite = new TransactionTemplate(transactionManager);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        memberId = readWrite.execute(status -> memberRepository.save(new Member("indexMember", 10)).getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        readWrite.execute(status -> {
+            memberRepository.findById(memberId).ifPresent(memberRepository::delete);
+            return null;
+        });
+    }
+
+    @Test
+    void hit() {
+        //given
+        memberRepository.findListByUsername("indexMember");
+        long hitBefore = index.stats().hitCount();
+
+        //when
+        long before = statistics.getPrepareStatementCount();
+        Member member = memberRepository.findMemberByUsername("indexMember");
+        assertThat(memberRepository.findOptionalByUsername("indexMember")).contains(member);
+
+        //then
+        assertThat(member.getId()).isEqualTo(memberId);
+        assertThat(statistics.getPrepareStatementCount() - before).isZero(); //id 조회는 2차 캐시 적중
+        assertThat(index.stats().hitCount() - hitBefore).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateOnPersist() {
+        //given
+        memberRepository.findListByUsername("indexMember");
+
+        //when
+        Long otherId = readWrite.execute(status -> memberRepository.save(new Member("indexMember", 20)).getId());
+
+        //then
+        try {
+            assertThat(memberRepository.findListByUsername("indexMember"))
+                    .extracting(Member::getId)
+                    .containsExactlyInAnyOrder(memberId, otherId);
+        } finally {
+            readWrite.execute(status -> {
+                memberRepository.deleteById(otherId);
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void renameAndDelete() {
+        //given
+        memberRepository.findListByUsername("indexMember");
+
+        //when
+        readWrite.execute(status -> {
+            memberRepository.findById(memberId).get().setUsername("indexRenamed");
+            return null;
+        });
+
+        //then
+        assertThat(memberRepository.findListByUsername("indexMember")).isEmpty();
+        assertThat(memberRepository.findByNativeQuery("indexRenamed").getId()).isEqualTo(memberId);
+
+        //when
+        readWrite.execute(status -> {
+            memberRepository.deleteById(memberId);
+            return null;
+        });
+
+        //then
+        assertThat(memberRepository.findByNativeQuery("indexRenamed")).isNull();
+    }
+
+    @Test
+    void skipPutAfterInvalidation() {
+        //given
+        //쿼리 전에 세대를 받고, 쿼리와 채우기 사이에 다른 트랜잭션이 커밋해서 무효화했다.
+        long generation = index.generation("indexMember");
+        index.invalidate("indexMember");
+
+        //when
+        index.put("indexMember", List.of(), generation);
+
+        //then
+        //새 회원이 빠진 목록을 채우지 않는다.
+        assertThat(index.get("indexMember")).isNull();
+    }
+
+    @Test
+    void invalidateOnBulkUpdate() {
+        //given
+        memberRepository.findListByUsername("indexMember");
+
+        //when
+        //엔티티 콜백 없이 username 변경
+        bulkMutationSupport.update(Member.class, "e.username = 'indexBulk'", "e.id = :id", Map.of("id", memberId), 100);
+
+        //then
+        assertThat(index.get("indexMember")).isNull();
+        assertThat(memberRepository.findListByUsername("indexMember")).isEmpty();
+    }
+
+    @Test
+    void nullUsername() {
+        //given
+        Long nullId = readWrite.execute(status -> memberRepository.save(new Member(null, 10)).getId());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        //when
+        //인덱스를 거치지 않고 is null 로 조회한다.
+        List<Member> result = readOnly.execute(status -> memberRepository.findListByUsername(null));
+
+        //then
+        try {
+            assertThat(result).extracting(Member::getId).contains(nullId);
+        } finally {
+            readWrite.execute(status -> {
+                memberRepository.deleteById(nullId);
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void oneSynchronizationPerTransaction() {
+        readWrite.execute(status -> {
+            int before = TransactionSynchronizationManager.getSynchronizations().size();
+            for (int i = 0; i < 100; i++) {
+                index.invalidate("indexMember" + i);
+            }
+            index.invalidateAll();
+            assertThat(TransactionSynchronizationManager.getSynchronizations().size() - before).isEqualTo(1);
+            return null;
+        });
+    }
+}
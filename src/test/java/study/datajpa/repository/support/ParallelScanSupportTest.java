@@ -0,0 +1,87 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 청크는 별도 트랜잭션(커넥션)에서 조회하므로 데이터를 커밋해두고 검증한다.
+ */
+@SpringBootTest
+class ParallelScanSupportTest {
+    private static final String SELECT =
+            "select new study.datajpa.dto.MemberDto(e.id, e.username, t.name) from Member e left join e.team t";
+    private static final Map<String, Object> PARAMS = Collections.singletonMap("prefix", "scan%");
+
+    @Autowired
+    ParallelScanSupport parallelScanSupport;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    List<Long> ids = new ArrayList<>();
+    Long teamId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = teamRepository.save(new Team("scanTeam"));
+            teamId = team.getId();
+            for (int i = 0; i < 50; i++) {
+                ids.add(memberRepository.save(new Member("scan" + i, i, team)).getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.deleteAllByIdInBatch(ids);
+            teamRepository.deleteById(teamId);
+        });
+    }
+
+    @Test
+    void ordered() {
+        List<MemberDto> result = parallelScanSupport.scan(Member.class, SELECT, "e.username like :prefix", PARAMS,
+                MemberDto.class, 7, 3, true);
+
+        assertThat(result).extracting(MemberDto::getId).containsExactlyElementsOf(ids);
+        assertThat(result).extracting(MemberDto::getTeamName).containsOnly("scanTeam");
+    }
+
+    @Test
+    void unordered() {
+        List<MemberDto> result = parallelScanSupport.scan(Member.class, SELECT, "e.username like :prefix", PARAMS,
+                MemberDto.class, 7, 3, false);
+
+        assertThat(result).extracting(MemberDto::getId).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void chunks() {
+        List<Integer> sizes = new ArrayList<>();
+        parallelScanSupport.forEachChunk(Member.class, SELECT, "e.username like :prefix", PARAMS,
+                MemberDto.class, 20, 2, true, chunk -> sizes.add(chunk.size()));
+
+        assertThat(sizes).containsExactly(20, 20, 10);
+    }
+}
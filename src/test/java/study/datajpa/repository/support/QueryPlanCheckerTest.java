@@ -0,0 +1,32 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class QueryPlanCheckerTest {
+    @Autowired
+    QueryPlanChecker queryPlanChecker;
+
+    @Test
+    void declaredQueriesUseIndex() {
+        //시작 시점(ApplicationReadyEvent)에 이미 검사했다.
+        assertThat(queryPlanChecker.getFullScans()).isEmpty();
+    }
+
+    @Test
+    void detectFullScan() {
+        String indexed = "select * from member where username = ? and age = ?";
+        String notIndexed = "select * from member where create_by = ?";
+
+        String indexedPlan = queryPlanChecker.explain(indexed);
+        String notIndexedPlan = queryPlanChecker.explain(notIndexed);
+
+        assertThat(indexedPlan).containsIgnoringCase("idx_member_username_age");
+        assertThat(queryPlanChecker.isFullScan(indexed, indexedPlan)).isFalse();
+        assertThat(queryPlanChecker.isFullScan(notIndexed, notIndexedPlan)).isTrue();
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberSpec;
+import study.datajpa.repository.TeamJpaRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class QueryWarmupTest {
+    @Autowired
+    QueryWarmup queryWarmup;
+    @Autowired
+    QueryPlanCacheMetrics queryPlanCacheMetrics;
+    @Autowired
+    SpecificationQuerySupport specificationQuerySupport;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+    @Autowired
+    ApplicationAvailability availability;
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void warmedUpBeforeReady() {
+        //시작 시점(ApplicationReadyEvent)에 이미 실행했다.
+        assertThat(queryWarmup.isCompleted()).isTrue();
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(queryWarmup.getPreparedStatements()).isPositive();
+
+        assertThat(queryWarmup.getCompiledJpql()).contains(
+                "select m from Member m where m.username = :username", //네임드 쿼리
+                "select m from Member m where m.username in :names", //@Query
+                "select count(t) from Team t", //@WarmupQuery
+                specificationQuerySupport.jpql(Member.class, MemberSpec.teamName("t").and(MemberSpec.ageGoe(1))));
+    }
+
+    @Test
+    void planCacheHit() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long missBefore = statistics.getQueryPlanCacheMissCount();
+        long hitBefore = statistics.getQueryPlanCacheHitCount();
+
+        memberJpaRepository.findByPage(10, 0, 3);
+        memberJpaRepository.totalCount(10);
+        teamJpaRepository.count();
+
+        //JPQL 을 다시 파싱하지 않는다.
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(missBefore);
+        assertThat(statistics.getQueryPlanCacheHitCount()).isGreaterThan(hitBefore);
+        assertThat(queryPlanCacheMetrics.size()).isGreaterThanOrEqualTo(queryWarmup.getCompiledJpql().size());
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsTest {
+    private static final String METHOD = "findByUsernameAndAgeGreaterThan";
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    void invocationMetrics() {
+        //given
+        em.persist(new Member("metrics1", 10));
+        em.persist(new Member("metrics1", 20));
+        em.flush();
+        em.clear();
+
+        //when
+        //메트릭은 컨텍스트를 공유하는 다른 테스트에서도 쌓이므로 호출 전후 차이로 검증
+        long calls = timerCount();
+        double statements = summaryTotal("repository.statements");
+        double entities = summaryTotal("repository.entities");
+        memberRepository.findByUsernameAndAgeGreaterThan("metrics1", 0);
+
+        //then
+        assertThat(timerCount() - calls).isEqualTo(1);
+        assertThat(summaryTotal("repository.statements") - statements).isEqualTo(1);
+        assertThat(summaryTotal("repository.entities") - entities).isEqualTo(2);
+    }
+
+    @Test
+    void overloadsAreSeparated() {
+        //when
+        memberRepository.findAll();
+        memberRepository.findAll(Sort.by("username"));
+
+        //then
+        //findAll() 과 findAll(Sort) 는 다른 메트릭
+        assertThat(registry.find("repository.invocations")
+                .tag("repository", "MemberRepository")
+                .tag("method", "findAll")
+                .tag("outcome", "success")
+                .timers())
+                .extracting(timer -> timer.getId().getTag("signature"))
+                .contains("()", "(Sort)");
+    }
+
+    private long timerCount() {
+        Timer timer = registry.find("repository.invocations")
+                .tag("repository", "MemberRepository")
+                .tag("method", METHOD)
+                .tag("outcome", "success")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double summaryTotal(String name) {
+        DistributionSummary summary = registry.find(name)
+                .tag("repository", "MemberRepository")
+                .tag("method", METHOD)
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+}
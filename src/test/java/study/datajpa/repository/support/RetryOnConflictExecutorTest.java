@@ -0,0 +1,96 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class RetryOnConflictExecutorTest {
+    private static final int THREADS = 8;
+    private static final int INCREMENTS = 10;
+    private static final int MAX_ATTEMPTS = 100; //같은 회원 2명을 8개 스레드가 수정하므로 충돌이 잦다.
+
+    @Autowired
+    RetryOnConflictExecutor retryOnConflictExecutor;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    //커밋된 회원이 다른 테스트에 남지 않도록 지운다.
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(ids);
+    }
+
+    @Test
+    void conflict() {
+        //given
+        Long id = memberRepository.save(new Member("optimistic", 0)).getId();
+        ids.add(id);
+
+        //when
+        //같은 회원을 두 트랜잭션이 수정 -> 나중에 커밋한 쪽이 충돌
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> {
+            Member member = memberRepository.findById(id).get();
+            retryOnConflictExecutor.execute(s -> {
+                memberRepository.findById(id).get().setAge(1);
+                return null;
+            });
+            member.setAge(2);
+            memberRepository.flush();
+            return null;
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        //then
+        assertThat(memberRepository.findById(id).get().getAge()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentUpdates() throws Exception {
+        //given
+        ids.add(memberRepository.save(new Member("concurrent1", 0)).getId());
+        ids.add(memberRepository.save(new Member("concurrent2", 0)).getId());
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < INCREMENTS; i++) {
+                    Long id = ids.get((thread + i) % ids.size());
+                    retryOnConflictExecutor.execute(MAX_ATTEMPTS, status -> {
+                        Member member = memberRepository.findById(id).get();
+                        member.setAge(member.getAge() + 1);
+                        return null;
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        //재시도로 모든 증가가 반영된다. (lost update 없음)
+        int total = memberRepository.findAllById(ids).stream().mapToInt(Member::getAge).sum();
+        assertThat(total).isEqualTo(THREADS * INCREMENTS);
+    }
+}
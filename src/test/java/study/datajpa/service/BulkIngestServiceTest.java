@@ -0,0 +1,129 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.support.MemberUsernameIndex;
+import study.datajpa.repository.support.PageCountSupport;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class BulkIngestServiceTest {
+    @Autowired
+    BulkIngestService bulkIngestService;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    AuditorAware<String> auditorProvider;
+    @Autowired
+    DateTimeProvider auditingDateTimeProvider;
+    @Autowired
+    PageCountSupport pageCountSupport;
+    @Autowired
+    MemberUsernameIndex memberUsernameIndex;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    EntityManagerFactory emf;
+
+    /**
+     * 배치 분할(batchSize 건씩)을 확인하려고 batchSize 3 인 인스턴스를 따로 만든다. (공유 빈과 테스트 컨텍스트는 그대로)
+     * 테스트 트랜잭션에 참여하고, batchUpdate 결과(배치별 건수)를 기록한다.
+     */
+    BulkIngestService smallBatchService(List<int[][]> results) {
+        JdbcTemplate recording = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                int[][] result = super.batchUpdate(sql, batchArgs, batchSize, pss);
+                results.add(result);
+                return result;
+            }
+        };
+        return new BulkIngestService(recording, auditorProvider, auditingDateTimeProvider, pageCountSupport,
+                memberUsernameIndex, eventPublisher, emf, 3);
+    }
+
+    @Test
+    void insertMembers() {
+        //given
+        Team team = teamRepository.save(new Team("bulkTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("bulk" + i, i, i % 2 == 0 ? team : null));
+        }
+        List<int[][]> results = new ArrayList<>();
+
+        //when
+        int count = smallBatchService(results).insertMembers(members);
+
+        //then
+        assertThat(count).isEqualTo(10);
+        //3 + 3 + 3 + 1 건으로 나눠서 실행
+        assertThat(results).hasSize(1);
+        assertThat(Arrays.stream(results.get(0)).mapToInt(batch -> batch.length)).containsExactly(3, 3, 3, 1);
+        List<Member> result = memberRepository.findListByUsername("bulk4");
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0).getTeam().getName()).isEqualTo("bulkTeam");
+        assertThat(result.get(0).getCreateTime()).isNotNull();
+        assertThat(result.get(0).getCreateBy()).isNotNull();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void insertMembersEvictsQueryCache() {
+        //given
+        assertThat(memberJpaRepository.findByUsername("bulkCached")).isEmpty(); //빈 결과가 쿼리 캐시에 들어간다.
+
+        try {
+            //when
+            bulkIngestService.insertMembers(List.of(new Member("bulkCached", 10)));
+
+            //then
+            assertThat(memberJpaRepository.findByUsername("bulkCached")).hasSize(1);
+        } finally {
+            jdbcTemplate.update("delete from member where username = ?", "bulkCached");
+        }
+    }
+
+    @Test
+    void insertTeams() {
+        List<int[][]> results = new ArrayList<>();
+
+        int count = smallBatchService(results).insertTeams(
+                List.of(new Team("bulkA"), new Team("bulkB"), new Team("bulkC"), new Team("bulkD")));
+
+        assertThat(count).isEqualTo(4);
+        assertThat(Arrays.stream(results.get(0)).mapToInt(batch -> batch.length)).containsExactly(3, 1);
+    }
+}